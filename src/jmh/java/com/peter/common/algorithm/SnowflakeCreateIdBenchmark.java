@@ -0,0 +1,150 @@
+package com.peter.common.algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName SnowflakeCreateIdBenchmark
+ * @Description 各个ID生成器在1/4/16/64个线程下的吞吐量和延迟分位数
+ * 同一组场景跑所有 IdGenerator 实现，结果可以直接横向对比；新增生成器时在 generator 参数里加一项即可
+ * 运行：mvn -P jmh test-compile exec:exec -Djmh.args="SnowflakeCreateIdBenchmark"
+ * @Author peter
+ * @Date 2026/10/18 16:40
+ * @Version 1.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnowflakeCreateIdBenchmark {
+
+    private static final int BATCH = 64;
+
+    @State(Scope.Benchmark)
+    public static class Generator {
+
+        @Param({"synchronized", "lockFree", "cached", "striped", "segment"})
+        public String generator;
+
+        IdGenerator idGenerator;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            switch (generator) {
+                case "synchronized":
+                    idGenerator = new SnowflakeCreateId(1, 1, 0);
+                    break;
+                case "lockFree":
+                    idGenerator = new LockFreeSnowflakeCreateId(1, 1);
+                    break;
+                case "cached":
+                    idGenerator = new CachedSnowflakeCreateId(new SnowflakeCreateId(1, 1, 0));
+                    break;
+                case "striped":
+                    idGenerator = new StripedSnowflakeCreateId(1, 0);
+                    break;
+                case "segment":
+                    FileSegmentStore store = new FileSegmentStore(Files.createTempDirectory("segment-bench"));
+                    idGenerator = new SegmentIdGenerator(store, "bench", 1000000L);
+                    break;
+                default:
+                    throw new IllegalArgumentException(generator);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (idGenerator instanceof Closeable) {
+                ((Closeable) idGenerator).close();
+            }
+        }
+    }
+
+    /**
+     * 批量接口单独测：每次调用取 BATCH 个，结果按单个ID折算
+     */
+    @State(Scope.Benchmark)
+    public static class BatchGenerator {
+        final SnowflakeCreateId generator = new SnowflakeCreateId(1, 1, 0);
+    }
+
+    @State(Scope.Thread)
+    public static class BatchBuffer {
+        final long[] ids = new long[BATCH];
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long nextId01(Generator state) {
+        return state.idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long nextId04(Generator state) {
+        return state.idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long nextId16(Generator state) {
+        return state.idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long nextId64(Generator state) {
+        return state.idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH)
+    public long[] batch01(BatchGenerator state, BatchBuffer buffer) {
+        state.generator.fill(buffer.ids, 0, BATCH);
+        return buffer.ids;
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(BATCH)
+    public long[] batch04(BatchGenerator state, BatchBuffer buffer) {
+        state.generator.fill(buffer.ids, 0, BATCH);
+        return buffer.ids;
+    }
+
+    @Benchmark
+    @Threads(16)
+    @OperationsPerInvocation(BATCH)
+    public long[] batch16(BatchGenerator state, BatchBuffer buffer) {
+        state.generator.fill(buffer.ids, 0, BATCH);
+        return buffer.ids;
+    }
+
+    @Benchmark
+    @Threads(64)
+    @OperationsPerInvocation(BATCH)
+    public long[] batch64(BatchGenerator state, BatchBuffer buffer) {
+        state.generator.fill(buffer.ids, 0, BATCH);
+        return buffer.ids;
+    }
+}
@@ -0,0 +1,112 @@
+package com.peter.common.bytes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName HexUtilsBenchmark
+ * @Description 查表实现和原来 indexOf / Integer.toHexString 实现的对比，legacy 开头的方法是原来的写法
+ * 运行：mvn -P jmh test-compile exec:exec -Djmh.args="HexUtilsBenchmark"
+ * @Author peter
+ * @Date 2026/10/18 20:10
+ * @Version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HexUtilsBenchmark {
+    private static final String STRING = "0123456789ABCDEF";
+
+    /**
+     * 32：摘要，256：签名，4096：较大的报文
+     */
+    @Param({"32", "256", "4096"})
+    public int size;
+
+    private byte[] bytes;
+    private String hex;
+    private char[] chars;
+    private byte[] decoded;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        hex = HexUtils.bytesToHexString(bytes);
+        chars = new char[size * 2];
+        decoded = new byte[size];
+        buffer = ByteBuffer.allocateDirect(size);
+    }
+
+    @Benchmark
+    public String legacyBytesToHexString() {
+        StringBuffer sb = new StringBuffer(bytes.length);
+        String sTmp;
+        for (int i = 0; i < bytes.length; i++) {
+            sTmp = Integer.toHexString(0xFF & bytes[i]);
+            if (sTmp.length() < 2) {
+                sb.append(0);
+            }
+            sb.append(sTmp.toUpperCase());
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String bytesToHexString() {
+        return HexUtils.bytesToHexString(bytes);
+    }
+
+    @Benchmark
+    public char[] encodeIntoCharArray() {
+        HexUtils.encode(bytes, 0, bytes.length, chars, 0);
+        return chars;
+    }
+
+    @Benchmark
+    public byte[] legacyHexStringToByte() {
+        int len = hex.length() / 2;
+        byte[] result = new byte[len];
+        char[] hexChars = hex.toCharArray();
+        for (int i = 0; i < len; i++) {
+            int pos = i * 2;
+            result[i] = (byte) (STRING.indexOf(hexChars[pos]) << 4 | STRING.indexOf(hexChars[pos + 1]));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] hexStringToByte() {
+        return HexUtils.hexStringToByte(hex);
+    }
+
+    @Benchmark
+    public byte[] decodeIntoByteArray() {
+        HexUtils.decode(hex, 0, hex.length(), decoded, 0);
+        return decoded;
+    }
+
+    @Benchmark
+    public ByteBuffer decodeIntoDirectBuffer() {
+        buffer.clear();
+        HexUtils.decode(hex, 0, hex.length(), buffer);
+        return buffer;
+    }
+}
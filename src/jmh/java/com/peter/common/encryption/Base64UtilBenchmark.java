@@ -0,0 +1,114 @@
+package com.peter.common.encryption;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName Base64UtilBenchmark
+ * @Description Base64Util 和 java.util.Base64 的对比，jdk 开头的方法是JDK的写法
+ * JDK的编解码器只能从下标0开始读写整个数组，不支持写到直接缓冲区，解码也不能混用两种字母表
+ * 运行：mvn -P jmh test-compile exec:exec -Djmh.args="Base64UtilBenchmark"
+ * @Author peter
+ * @Date 2026/10/19 04:10
+ * @Version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Base64UtilBenchmark {
+
+    /**
+     * 32：HMAC，256：签名，4096：较大的报文
+     */
+    @Param({"32", "256", "4096"})
+    public int size;
+
+    private byte[] bytes;
+    private byte[] encoded;
+    private String text;
+    private byte[] encodeTarget;
+    private byte[] decodeTarget;
+    private ByteBuffer directSource;
+    private ByteBuffer directTarget;
+
+    @Setup
+    public void setUp() {
+        bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        encoded = Base64.getEncoder().encode(bytes);
+        text = new String(encoded, StandardCharsets.US_ASCII);
+        encodeTarget = new byte[encoded.length];
+        decodeTarget = new byte[size];
+        directSource = ByteBuffer.allocateDirect(size);
+        directSource.put(bytes).flip();
+        directTarget = ByteBuffer.allocateDirect(encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encodeIntoArray() {
+        Base64Util.encode(bytes, 0, bytes.length, encodeTarget, 0, Base64Util.Alphabet.STANDARD);
+        return encodeTarget;
+    }
+
+    @Benchmark
+    public byte[] jdkEncodeIntoArray() {
+        Base64.getEncoder().encode(bytes, encodeTarget);
+        return encodeTarget;
+    }
+
+    @Benchmark
+    public ByteBuffer encodeDirectBuffer() {
+        directSource.rewind();
+        directTarget.clear();
+        Base64Util.encode(directSource, directTarget, Base64Util.Alphabet.STANDARD);
+        return directTarget;
+    }
+
+    @Benchmark
+    public ByteBuffer jdkEncodeDirectBuffer() {
+        directSource.rewind();
+        directTarget.clear();
+        directTarget.put(Base64.getEncoder().encode(directSource));
+        return directTarget;
+    }
+
+    @Benchmark
+    public byte[] decodeIntoArray() {
+        Base64Util.decode(encoded, 0, encoded.length, decodeTarget, 0);
+        return decodeTarget;
+    }
+
+    @Benchmark
+    public byte[] jdkDecodeIntoArray() {
+        Base64.getDecoder().decode(encoded, decodeTarget);
+        return decodeTarget;
+    }
+
+    @Benchmark
+    public byte[] decodeString() {
+        return Base64Util.decode(text);
+    }
+
+    @Benchmark
+    public byte[] jdkDecodeString() {
+        return Base64.getDecoder().decode(text);
+    }
+}
@@ -0,0 +1,267 @@
+package com.peter.common.algorithm;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @ClassName CachedSnowflakeCreateId
+ * @Description 预生成ID的环形缓存，后台线程批量补充，调用方只做一次不阻塞的取数
+ * 注意：缓存里的ID是提前生成的，ID里的时间戳会比实际取出的时间早一些，但最多早 maxAgeMillis；
+ * 补充线程每 maxAgeMillis / 4 检查一次，把年龄超过 maxAgeMillis 的 3/4 的ID丢掉再补新的（低流量时缓存会放很久），
+ * 调用方取数时不读时钟；只要补充线程没有被饿死，SnowflakeIdDecoder 按时间算出的ID上下界误差不超过 maxAgeMillis
+ * 补充时每次最多向生成器领 REFILL_CHUNK 个ID，领完就释放生成器的锁，缓存取空时直接找生成器要ID的调用方最多等一段
+ * 缓存大小按“每秒ID数 × maxAgeMillis”估算（bufferSizeFor），过大的缓存在低流量时只会整段过期、白白重新生成
+ * @Author peter
+ * @Date 2026/10/18 11:20
+ * @Version 1.0
+ */
+public class CachedSnowflakeCreateId implements IdGenerator, Closeable {
+    /**
+     * DEFAULT_MAX_AGE_MILLIS ：默认允许取出的ID比当前时间早多少毫秒
+     * DEFAULT_IDS_PER_SECOND ：估算默认缓存大小时假设的每秒取数量
+     * DEFAULT_BUFFER_SIZE ：默认缓存大小，大约是 maxAgeMillis 内取走的ID数
+     * DEFAULT_REFILL_PERCENT ：缓存剩余量低于容量的这个百分比时唤醒补充线程
+     * REFILL_CHUNK ：补充时一次向生成器领取的最大ID数，限制每次持有生成器锁的时间
+     * MIN_BUFFER_SIZE / MAX_BUFFER_SIZE ：bufferSizeFor 算出的缓存大小的上下限
+     * IDLE_PARK_NANOS ：补充线程空闲时的最长休眠时间，到点也会检查一次水位
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = 1000L;
+    public static final long DEFAULT_IDS_PER_SECOND = 8192L;
+    public static final int DEFAULT_REFILL_PERCENT = 50;
+    public static final int REFILL_CHUNK = 1024;
+    private static final int MIN_BUFFER_SIZE = 64;
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+    public static final int DEFAULT_BUFFER_SIZE = bufferSizeFor(DEFAULT_IDS_PER_SECOND, DEFAULT_MAX_AGE_MILLIS);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * generator ：真正生成ID的生成器，补充缓存和缓存取空时都用它
+     * slots ：环形缓存
+     * tail ：生产者游标，小于tail的位置都已经写好了ID
+     * cursor ：消费者游标，下一个要取的位置
+     * refillThreshold ：剩余量低于这个值就唤醒补充线程
+     * clock / layout ：取自生成器，用来算ID的年龄
+     * dropAgeMillis ：补充线程丢弃ID的年龄，比 maxAgeMillis 提前一个检查间隔
+     * checkNanos ：补充线程检查过期的间隔
+     */
+    private final SnowflakeCreateId generator;
+    private final SnowflakeClock clock;
+    private final SnowflakeLayout layout;
+    private final long maxAgeMillis;
+    private final long dropAgeMillis;
+    private final long checkNanos;
+    private final long[] slots;
+    private final int indexMask;
+    private final int refillThreshold;
+    private final PaddedAtomicLong tail = new PaddedAtomicLong(0);
+    private final PaddedAtomicLong cursor = new PaddedAtomicLong(0);
+    private final LongAdder takeCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final AtomicBoolean refillRequested = new AtomicBoolean(false);
+    private final Thread refillThread;
+    private volatile boolean running = true;
+
+    public CachedSnowflakeCreateId(SnowflakeCreateId generator) {
+        this(generator, DEFAULT_BUFFER_SIZE, DEFAULT_REFILL_PERCENT);
+    }
+
+    public CachedSnowflakeCreateId(SnowflakeCreateId generator, int bufferSize, int refillPercent) {
+        this(generator, bufferSize, refillPercent, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    /**
+     * @param generator     生成器
+     * @param bufferSize    缓存大小，必须是2的幂
+     * @param refillPercent 剩余量低于容量的这个百分比时补充
+     * @param maxAgeMillis  取出的ID最多比当前时间早多少毫秒，至少是布局时间粒度的两倍
+     */
+    public CachedSnowflakeCreateId(SnowflakeCreateId generator, int bufferSize, int refillPercent, long maxAgeMillis) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException(String.format("buffer size must be a power of 2: %d", bufferSize));
+        }
+        if (refillPercent <= 0 || refillPercent > 100) {
+            throw new IllegalArgumentException(
+                    String.format("refill percent must be between 1 and 100: %d", refillPercent));
+        }
+        if (maxAgeMillis < 2 * generator.getLayout().getTickMillis()) {
+            // 秒粒度的ID只记录所在秒的起点，刚生成的ID看起来也可能旧了将近一秒，丢弃年龄必须比这大
+            throw new IllegalArgumentException(String.format("max age must be at least two ticks (%dms): %d",
+                    2 * generator.getLayout().getTickMillis(), maxAgeMillis));
+        }
+        this.generator = generator;
+        this.clock = generator.getClock();
+        this.layout = generator.getLayout();
+        this.maxAgeMillis = maxAgeMillis;
+        this.dropAgeMillis = maxAgeMillis - (maxAgeMillis + 3) / 4;
+        this.checkNanos = Math.min(IDLE_PARK_NANOS, TimeUnit.MILLISECONDS.toNanos(maxAgeMillis) / 4);
+        this.slots = new long[bufferSize];
+        this.indexMask = bufferSize - 1;
+        this.refillThreshold = (int) ((long) bufferSize * refillPercent / 100);
+
+        // 先同步填满一次，保证刚启动时也能命中缓存
+        refill();
+        this.refillThread = new Thread(this::refillLoop, "snowflake-id-refill");
+        this.refillThread.setDaemon(true);
+        this.refillThread.start();
+    }
+
+    @Override
+    public long nextId() {
+        takeCount.increment();
+        for (; ; ) {
+            long current = cursor.get();
+            long available = tail.get();
+            if (current >= available) {
+                // 缓存取空了，直接找生成器要一个，同时催促补充线程
+                missCount.increment();
+                requestRefill();
+                return generator.nextId();
+            }
+            // 先读再CAS：如果这个槽位在读的过程中被生产者覆盖，说明cursor已经被别人推进过，CAS必然失败重来
+            long id = slots[(int) current & indexMask];
+            if (cursor.compareAndSet(current, current + 1)) {
+                if (available - current - 1 < refillThreshold) {
+                    requestRefill();
+                }
+                return id;
+            }
+        }
+    }
+
+    /**
+     * 当前缓存里还剩多少个ID
+     */
+    public int getFillLevel() {
+        return (int) Math.max(0L, tail.get() - cursor.get());
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * 总的取数次数
+     */
+    public long getTakeCount() {
+        return takeCount.sum();
+    }
+
+    /**
+     * 缓存为空、退回到生成器直接生成的次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 因为过期被补充线程丢弃的ID个数
+     */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    /**
+     * 按取数速率估算缓存大小：大约是 maxAgeMillis 内取走的ID数，向上取到2的幂
+     *
+     * @param idsPerSecond 预计每秒取多少个ID
+     * @param maxAgeMillis 允许ID比当前时间早多少毫秒
+     * @return 缓存大小
+     */
+    public static int bufferSizeFor(long idsPerSecond, long maxAgeMillis) {
+        if (idsPerSecond <= 0 || maxAgeMillis <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "ids per second and max age must be positive: %d, %d", idsPerSecond, maxAgeMillis));
+        }
+        long wanted = Math.min(MAX_BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, idsPerSecond * maxAgeMillis / 1000L));
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(refillThread);
+        try {
+            refillThread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long generatedAt(long id) {
+        return layout.toMillis(id >>> layout.getTimestampLeftShift());
+    }
+
+    private void requestRefill() {
+        if (refillRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(refillThread);
+        }
+    }
+
+    private void refillLoop() {
+        while (running) {
+            refillRequested.set(false);
+            try {
+                dropExpired();
+                refill();
+            } catch (RuntimeException e) {
+                // 一般是时钟回拨，下一轮再试，这期间调用方会退回到生成器直接生成
+                System.err.printf("refill snowflake id cache failed: %s%n", e.getMessage());
+            }
+            LockSupport.parkNanos(this, checkNanos);
+        }
+    }
+
+    /**
+     * 缓存里的ID按生成顺序排列，从最旧的开始找到第一个没过期的，把它之前的一次性丢掉；
+     * 先按 REFILL_CHUNK 一段一段看段尾，再在最后一段里逐个看，只读一次时钟
+     * [cursor, tail) 里的槽位只有本线程会写，读的时候不会被覆盖；CAS失败说明调用方已经取走了一部分，下一轮再看
+     */
+    private void dropExpired() {
+        long current = cursor.get();
+        long available = tail.get();
+        if (current >= available) {
+            return;
+        }
+        long oldest = clock.currentTimeMillis() - dropAgeMillis;
+        long keep = current;
+        while (keep < available) {
+            long end = Math.min(available, keep + REFILL_CHUNK);
+            if (generatedAt(slots[(int) (end - 1) & indexMask]) >= oldest) {
+                break;
+            }
+            keep = end;
+        }
+        while (keep < available && generatedAt(slots[(int) keep & indexMask]) < oldest) {
+            keep++;
+        }
+        if (keep > current && cursor.compareAndSet(current, keep)) {
+            expiredCount.add(keep - current);
+        }
+    }
+
+    /**
+     * 只有一个生产者（构造方法里的首次填充发生在补充线程启动之前），
+     * 所以tail只会被这里推进；每段都不跨越数组末尾、不超过 REFILL_CHUNK，直接批量写进环形数组，
+     * 段与段之间会释放生成器的锁，让缓存取空的调用方插进来
+     */
+    private void refill() {
+        long writePos = tail.get();
+        long free = slots.length - (writePos - cursor.get());
+        while (running && free > 0) {
+            int index = (int) writePos & indexMask;
+            int len = (int) Math.min(Math.min(free, slots.length - index), REFILL_CHUNK);
+            generator.fill(slots, index, len);
+            writePos += len;
+            free -= len;
+            tail.set(writePos);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.peter.common.algorithm;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @ClassName CoarseSnowflakeClock
+ * @Description 粗粒度时钟：后台线程按固定间隔刷新一个volatile变量，调用方只读这个变量
+ * 精度取决于刷新间隔，适合每毫秒要生成大量ID、读系统时间本身已经成为开销的场景
+ * @Author peter
+ * @Date 2026/10/18 15:15
+ * @Version 1.0
+ */
+public class CoarseSnowflakeClock implements SnowflakeClock, Closeable {
+    /**
+     * DEFAULT_INTERVAL_MICROS ：默认刷新间隔，单位微秒
+     */
+    public static final long DEFAULT_INTERVAL_MICROS = 500L;
+
+    private final long intervalNanos;
+    private final Thread ticker;
+    private volatile long now = System.currentTimeMillis();
+    private volatile boolean running = true;
+
+    public CoarseSnowflakeClock() {
+        this(DEFAULT_INTERVAL_MICROS, TimeUnit.MICROSECONDS);
+    }
+
+    public CoarseSnowflakeClock(long interval, TimeUnit unit) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException(String.format("tick interval must be positive: %d", interval));
+        }
+        this.intervalNanos = unit.toNanos(interval);
+        this.ticker = new Thread(this::tickLoop, "snowflake-coarse-clock");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    private void tickLoop() {
+        while (running) {
+            now = System.currentTimeMillis();
+            LockSupport.parkNanos(this, intervalNanos);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.peter.common.algorithm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * @ClassName FileSegmentStore
+ * @Description 基于本地文件的号段存储：每个业务标识一个文件，文件里记录下一个未分配的值
+ * 分配时加文件锁，同一台机器上的多个进程共用一个目录也不会分到重叠的区间；每次分配都会刷盘
+ * 文件锁归整个进程所有，同一个JVM里的多个实例共用一个目录时先在进程内按文件加锁，再加文件锁
+ * 新值原地覆盖旧值后再截断：值只增不减，新值不会比旧值短，任何时刻断电文件里都是旧值或新值，不会是空文件
+ * @Author peter
+ * @Date 2026/10/18 17:20
+ * @Version 1.0
+ */
+public class FileSegmentStore implements SegmentStore {
+    private static final Pattern BIZ_TAG = Pattern.compile("[A-Za-z0-9_.-]+");
+    private static final String SUFFIX = ".segment";
+    /**
+     * FILE_MONITORS ：进程内每个号段文件一个锁对象，同一个JVM对同一个文件重复加文件锁会抛 OverlappingFileLockException
+     */
+    private static final ConcurrentMap<Path, Object> FILE_MONITORS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    public FileSegmentStore(Path directory) {
+        try {
+            this.directory = Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long allocate(String bizTag, long step) {
+        if (!BIZ_TAG.matcher(bizTag).matches()) {
+            throw new IllegalArgumentException(String.format("illegal biz tag: %s", bizTag));
+        }
+        if (step <= 0) {
+            throw new IllegalArgumentException(String.format("step must be positive: %d", step));
+        }
+        Path file = directory.resolve(bizTag + SUFFIX).toAbsolutePath().normalize();
+        synchronized (FILE_MONITORS.computeIfAbsent(file, key -> new Object())) {
+            return allocate(file, step);
+        }
+    }
+
+    private static long allocate(Path file, long step) {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(32);
+                while (channel.read(buffer) >= 0 && buffer.hasRemaining()) {
+                    // 读到文件结尾或者缓冲区满为止
+                }
+                String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+                long start = text.isEmpty() ? 0L : Long.parseLong(text);
+
+                byte[] value = Long.toString(Math.addExact(start, step)).getBytes(StandardCharsets.US_ASCII);
+                ByteBuffer next = ByteBuffer.wrap(value);
+                for (long position = 0; next.hasRemaining(); ) {
+                    position += channel.write(next, position);
+                }
+                channel.truncate(value.length);
+                channel.force(true);
+                return start;
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
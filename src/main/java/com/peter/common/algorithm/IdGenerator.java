@@ -0,0 +1,18 @@
+package com.peter.common.algorithm;
+
+/**
+ * @ClassName IdGenerator
+ * @Description ID生成器的统一接口，Snowflake的各个实现和号段模式的实现都从这里取ID
+ * @Author peter
+ * @Date 2026/10/18 17:10
+ * @Version 1.0
+ */
+public interface IdGenerator {
+
+    /**
+     * 获取下一个ID
+     *
+     * @return ID
+     */
+    long nextId();
+}
@@ -0,0 +1,119 @@
+package com.peter.common.algorithm;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Savepoint;
+import java.util.regex.Pattern;
+
+/**
+ * @ClassName JdbcSegmentStore
+ * @Description 基于数据库的号段存储，MySQL、H2等支持标准SQL的库都可以用，建表语句：
+ * <pre>
+ * create table id_segment (
+ *     biz_tag varchar(128) not null primary key,
+ *     max_id  bigint       not null
+ * );
+ * </pre>
+ * max_id 记录已经分配出去的最大值（不含），每次分配在一个事务里先 update 再 select，
+ * 行锁保证多个节点拿到的区间互不重叠；业务标识第一次使用时自动插入，
+ * 插入前设一个保存点，别的节点抢先插入导致主键冲突时回滚到保存点再 update（PostgreSQL 语句出错后整个事务都不能再用）
+ * @Author peter
+ * @Date 2026/10/18 17:35
+ * @Version 1.0
+ */
+public class JdbcSegmentStore implements SegmentStore {
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final String DEFAULT_TABLE = "id_segment";
+
+    private final DataSource dataSource;
+    private final String updateSql;
+    private final String selectSql;
+    private final String insertSql;
+
+    public JdbcSegmentStore(DataSource dataSource) {
+        this(dataSource, DEFAULT_TABLE);
+    }
+
+    public JdbcSegmentStore(DataSource dataSource, String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException(String.format("illegal table name: %s", table));
+        }
+        this.dataSource = dataSource;
+        this.updateSql = "update " + table + " set max_id = max_id + ? where biz_tag = ?";
+        this.selectSql = "select max_id from " + table + " where biz_tag = ?";
+        this.insertSql = "insert into " + table + " (biz_tag, max_id) values (?, ?)";
+    }
+
+    @Override
+    public long allocate(String bizTag, long step) {
+        if (step <= 0) {
+            throw new IllegalArgumentException(String.format("step must be positive: %d", step));
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long maxId = allocate(connection, bizTag, step);
+                connection.commit();
+                return maxId - step;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(String.format("allocate segment for %s failed", bizTag), e);
+        }
+    }
+
+    private long allocate(Connection connection, String bizTag, long step) throws SQLException {
+        if (update(connection, bizTag, step) == 0) {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+                insert.setString(1, bizTag);
+                insert.setLong(2, step);
+                insert.executeUpdate();
+                return step;
+            } catch (SQLException e) {
+                // 只有其他节点同时插入了同一个业务标识才按已存在处理，其他错误原样抛出
+                if (!isIntegrityViolation(e)) {
+                    throw e;
+                }
+                connection.rollback(savepoint);
+                if (update(connection, bizTag, step) == 0) {
+                    throw e;
+                }
+            }
+        }
+        try (PreparedStatement select = connection.prepareStatement(selectSql)) {
+            select.setString(1, bizTag);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new IllegalStateException(String.format("segment row for %s disappeared", bizTag));
+                }
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * SQLState 23 开头是完整性约束冲突，主键冲突属于这一类；MySQL 驱动会直接抛 SQLIntegrityConstraintViolationException
+     */
+    private static boolean isIntegrityViolation(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException
+                || e.getSQLState() != null && e.getSQLState().startsWith("23");
+    }
+
+    private int update(Connection connection, String bizTag, long step) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(updateSql)) {
+            update.setLong(1, step);
+            update.setString(2, bizTag);
+            return update.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.peter.common.algorithm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @ClassName LockFreeSnowflakeCreateId
+ * @Description 无锁版本的Snowflake ID生成器，同样的布局下生成的ID与 SnowflakeCreateId 格式完全一致
+ * @Author peter
+ * @Date 2026/10/18 10:12
+ * @Version 1.0
+ */
+public class LockFreeSnowflakeCreateId implements IdGenerator {
+    /**
+     * layout ：位布局，默认 41/5/5/12
+     * workerId ：工作机器ID
+     * dataCenterId ：数据中心ID
+     * initialTimestamp ：开始时间截（已换算成布局的时间单位）
+     * idBase ：机房id和机器id拼好的固定部分，每次生成时直接或上去
+     * clock ：时钟，默认直接读系统时间
+     * maxBackwardTicks ：能容忍的时钟回拨量，回拨不超过这个值时沿用state里的时间戳继续排序列
+     * state ：时间戳(相对initialTimestamp)和序列打包在一个long里，高位是时间戳，低位是序列，通过CAS推进；做了缓存行填充，多个生成器并排使用时互不干扰
+     */
+    private final SnowflakeLayout layout;
+    private final long workerId;
+    private final long dataCenterId;
+    private final long initialTimestamp;
+    private final long sequenceBits;
+    private final long sequenceMask;
+    private final long timestampLeftShift;
+    private final long maxTimestamp;
+    private final long idBase;
+    private final SnowflakeClock clock;
+    private final long maxBackwardTicks;
+    private final AtomicLong state = new PaddedAtomicLong(-1L);
+
+    public LockFreeSnowflakeCreateId(long workerId, long dataCenterId) {
+        this(SnowflakeLayout.DEFAULT, workerId, dataCenterId);
+    }
+
+    public LockFreeSnowflakeCreateId(SnowflakeLayout layout, long workerId, long dataCenterId) {
+        this(layout, SnowflakeClock.SYSTEM, 0L, workerId, dataCenterId);
+    }
+
+    /**
+     * @param layout            位布局
+     * @param clock             时钟
+     * @param maxBackwardMillis 可容忍的时钟回拨毫秒数，0表示一回拨就拒绝
+     * @param workerId          机器id
+     * @param dataCenterId      机房id
+     */
+    public LockFreeSnowflakeCreateId(SnowflakeLayout layout, SnowflakeClock clock, long maxBackwardMillis,
+                                     long workerId, long dataCenterId) {
+        if (maxBackwardMillis < 0) {
+            throw new IllegalArgumentException(
+                    String.format("max backward millis can't be less than 0: %d", maxBackwardMillis));
+        }
+        if (workerId > layout.getMaxWorkerId() || workerId < 0) {
+            throw new IllegalArgumentException(
+                    String.format("worker Id can't be greater than %d or less than 0", layout.getMaxWorkerId()));
+        }
+        if (dataCenterId > layout.getMaxDataCenterId() || dataCenterId < 0) {
+            throw new IllegalArgumentException(
+                    String.format("data center Id can't be greater than %d or less than 0", layout.getMaxDataCenterId()));
+        }
+        this.layout = layout;
+        this.workerId = workerId;
+        this.dataCenterId = dataCenterId;
+        this.initialTimestamp = layout.getEpochTick();
+        this.sequenceBits = layout.getSequenceBits();
+        this.sequenceMask = layout.getSequenceMask();
+        this.timestampLeftShift = layout.getTimestampLeftShift();
+        this.maxTimestamp = layout.getMaxTimestamp();
+        this.idBase = layout.compose(0L, dataCenterId, workerId, 0L);
+        this.clock = clock;
+        this.maxBackwardTicks = layout.toTicksCeil(maxBackwardMillis);
+    }
+
+    @Override
+    public long nextId() {
+        for (; ; ) {
+            // 必须先读state再读时钟：这样读到的时钟一定不早于state里的时间戳，
+            // 只有真正的时钟回拨才会出现 timestamp < lastTimestamp
+            long current = state.get();
+            long timestamp = timeGen() - initialTimestamp;
+            long lastTimestamp = current >> sequenceBits;
+            if (timestamp < lastTimestamp && lastTimestamp - timestamp <= maxBackwardTicks) {
+                // 小幅回拨：当作还停留在上次的时间戳
+                timestamp = lastTimestamp;
+            }
+
+            long next;
+            if (timestamp > lastTimestamp) {
+                if (timestamp > maxTimestamp) {
+                    throw new IllegalStateException(String.format(
+                            "timestamp bits exhausted for layout %s", layout));
+                }
+                next = timestamp << sequenceBits;
+            } else if (timestamp == lastTimestamp) {
+                long sequence = (current + 1) & sequenceMask;
+                if (sequence == 0) {
+                    // 本毫秒内的序列已用完，自旋等到下一毫秒再重新竞争
+                    tilNextMillis(lastTimestamp);
+                    continue;
+                }
+                next = current + 1;
+            } else {
+                // 时间戳都是布局的时间单位，秒粒度时要换算成毫秒再报告
+                System.err.printf("clock is moving backwards.  Rejecting requests until %d.",
+                        layout.toMillis(lastTimestamp));
+                throw new RuntimeException(String.format("clock moved backwards.  Refusing to generate id for %d milliseconds",
+                        (lastTimestamp - timestamp) * layout.getTickMillis()));
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return ((next >>> sequenceBits) << timestampLeftShift) | idBase | (next & sequenceMask);
+            }
+        }
+    }
+
+    public SnowflakeLayout getLayout() {
+        return layout;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public long getDataCenterId() {
+        return dataCenterId;
+    }
+
+    private void tilNextMillis(long lastTimestamp) {
+        long timestamp = timeGen() - initialTimestamp;
+        while (timestamp <= lastTimestamp) {
+            timestamp = timeGen() - initialTimestamp;
+        }
+    }
+
+    private long timeGen() {
+        return layout.toTick(clock.currentTimeMillis());
+    }
+}
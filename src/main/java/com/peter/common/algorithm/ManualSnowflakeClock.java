@@ -0,0 +1,35 @@
+package com.peter.common.algorithm;
+
+/**
+ * @ClassName ManualSnowflakeClock
+ * @Description 手动拨动的时钟，测试里用来重放时钟前进、停住、回拨等情况，不需要真的sleep
+ * @Author peter
+ * @Date 2026/10/18 15:20
+ * @Version 1.0
+ */
+public class ManualSnowflakeClock implements SnowflakeClock {
+
+    private volatile long now;
+
+    public ManualSnowflakeClock(long now) {
+        this.now = now;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    public void set(long now) {
+        this.now = now;
+    }
+
+    /**
+     * 往前或往后拨动时钟，传负数就是模拟时钟回拨
+     *
+     * @param millis 拨动的毫秒数
+     */
+    public synchronized void advance(long millis) {
+        this.now += millis;
+    }
+}
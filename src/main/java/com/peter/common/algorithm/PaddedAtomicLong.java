@@ -0,0 +1,26 @@
+package com.peter.common.algorithm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @ClassName PaddedAtomicLong
+ * @Description 在value后面填充了56字节的AtomicLong，避免生产者游标和消费者游标落在同一个缓存行上产生伪共享
+ * 只有后面有填充：value 是父类的字段，前面只能是对象头（12~16字节），没法再插字段；
+ * 两个先后创建的实例（如 tail 和 cursor）之间隔着前一个的填充和后一个的对象头，两个value相距至少72字节，不会在同一个缓存行
+ * @Author peter
+ * @Date 2026/10/18 11:05
+ * @Version 1.0
+ */
+class PaddedAtomicLong extends AtomicLong {
+    private static final long serialVersionUID = -3415778863941386253L;
+
+    /**
+     * 7个long共56字节，和value一起凑满64字节的缓存行；HotSpot不会删掉没有读写的字段，不需要额外“使用”它们
+     */
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+
+    PaddedAtomicLong(long initialValue) {
+        super(initialValue);
+    }
+}
@@ -0,0 +1,139 @@
+package com.peter.common.algorithm;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @ClassName SegmentIdGenerator
+ * @Description 号段模式的ID生成器：从 SegmentStore 一次领一整段连续的ID在内存里发放，
+ * 当前号段用掉10%时在后台线程里预取下一段（双缓冲），当前号段用完直接切换，正常情况下调用方不会等存储
+ * 同一节点内ID单调递增；多个节点之间各自发放不重叠的号段，整体是稠密的但不保证全局有序
+ * @Author peter
+ * @Date 2026/10/18 17:50
+ * @Version 1.0
+ */
+public class SegmentIdGenerator implements IdGenerator, Closeable {
+    /**
+     * PREFETCH_PERCENT ：当前号段用掉这个百分比后开始预取下一段
+     */
+    private static final int PREFETCH_PERCENT = 10;
+
+    /**
+     * current ：正在发放的号段
+     * nextSegment ：预取中或已经预取好的下一段，没有预取时为null
+     */
+    private final SegmentStore store;
+    private final String bizTag;
+    private final long step;
+    private final ExecutorService prefetchExecutor;
+    private volatile Segment current;
+    private volatile Future<Segment> nextSegment;
+
+    public SegmentIdGenerator(SegmentStore store, String bizTag, long step) {
+        if (step <= 0) {
+            throw new IllegalArgumentException(String.format("step must be positive: %d", step));
+        }
+        this.store = store;
+        this.bizTag = bizTag;
+        this.step = step;
+        this.prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "segment-prefetch-" + bizTag);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.current = loadSegment();
+    }
+
+    @Override
+    public long nextId() {
+        for (; ; ) {
+            Segment segment = current;
+            long id = segment.cursor.getAndIncrement();
+            if (id < segment.end) {
+                if (id >= segment.prefetchAt && nextSegment == null) {
+                    prefetch();
+                }
+                return id;
+            }
+            switchSegment(segment);
+        }
+    }
+
+    /**
+     * 当前号段还剩多少个ID
+     */
+    public long getRemaining() {
+        Segment segment = current;
+        return Math.max(0L, segment.end - segment.cursor.get());
+    }
+
+    public String getBizTag() {
+        return bizTag;
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    @Override
+    public void close() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    private synchronized void prefetch() {
+        if (nextSegment == null) {
+            nextSegment = prefetchExecutor.submit(this::loadSegment);
+        }
+    }
+
+    /**
+     * 当前号段用完，切换到下一段；预取还没完成时在这里等，预取失败则同步再领一次
+     */
+    private synchronized void switchSegment(Segment exhausted) {
+        if (current != exhausted) {
+            return;
+        }
+        Future<Segment> pending = nextSegment;
+        Segment next = null;
+        if (pending != null) {
+            try {
+                next = pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(String.format("interrupted while waiting segment for %s", bizTag), e);
+            } catch (ExecutionException e) {
+                System.err.printf("prefetch segment for %s failed: %s%n", bizTag, e.getCause());
+            }
+        }
+        if (next == null) {
+            next = loadSegment();
+        }
+        current = next;
+        nextSegment = null;
+    }
+
+    private Segment loadSegment() {
+        long start = store.allocate(bizTag, step);
+        return new Segment(start, start + step, start + step * PREFETCH_PERCENT / 100);
+    }
+
+    /**
+     * 一段连续的ID [start, end)，cursor是下一个要发放的值；
+     * cursor允许被并发推进到end之外，超出的部分直接丢弃
+     */
+    private static final class Segment {
+        private final long end;
+        private final long prefetchAt;
+        private final AtomicLong cursor;
+
+        private Segment(long start, long end, long prefetchAt) {
+            this.end = end;
+            this.prefetchAt = prefetchAt;
+            this.cursor = new PaddedAtomicLong(start);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.peter.common.algorithm;
+
+/**
+ * @ClassName SegmentStore
+ * @Description 号段模式的持久化计数器，每次分配一整段连续的ID
+ * 实现必须保证多个节点并发分配时拿到的区间互不重叠
+ * @Author peter
+ * @Date 2026/10/18 17:12
+ * @Version 1.0
+ */
+public interface SegmentStore {
+
+    /**
+     * 为业务标识分配一段ID
+     *
+     * @param bizTag 业务标识，不同业务各自计数
+     * @param step   本次分配的长度
+     * @return 本次分配区间的起始值，区间为 [start, start + step)
+     */
+    long allocate(String bizTag, long step);
+}
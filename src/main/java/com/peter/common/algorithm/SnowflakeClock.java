@@ -0,0 +1,23 @@
+package com.peter.common.algorithm;
+
+/**
+ * @ClassName SnowflakeClock
+ * @Description ID生成器使用的时钟，方便替换成粗粒度时钟或者测试里手动拨动的时钟
+ * @Author peter
+ * @Date 2026/10/18 15:10
+ * @Version 1.0
+ */
+public interface SnowflakeClock {
+
+    /**
+     * SYSTEM ：直接读系统时间，每次调用都是一次 System.currentTimeMillis()
+     */
+    SnowflakeClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * 当前时间
+     *
+     * @return 毫秒时间
+     */
+    long currentTimeMillis();
+}
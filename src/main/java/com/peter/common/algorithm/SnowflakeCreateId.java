@@ -7,7 +7,7 @@ package com.peter.common.algorithm;
  * @Date 2019/7/29 15:46
  * @Version 1.0
  */
-public class SnowflakeCreateId {
+public class SnowflakeCreateId implements IdGenerator {
     /**
      * workerId ：工作机器ID(0~31)
      * dataCenterId ：数据中心ID(0~31)
@@ -22,28 +22,82 @@ public class SnowflakeCreateId {
      * dataCenterIdShift ：数据标识id向左移17位(12+5)
      * timestampLeftShift ：时间截向左移22位(5+5+12)
      * sequenceMask ： 生成序列的掩码，这里为4095 (0b111111111111=0xfff=4095)
+     * maxTimestamp ：时间戳部分能表示的最大值
      * lastTimestamp ：上次生成ID的时间截
+     * layout ：位布局，上面的位数、偏移和掩码都从这里取，括号里是默认布局 41/5/5/12 下的值
+     * clock ：时钟，默认直接读系统时间
+     * maxBackwardTicks ：能容忍的时钟回拨量，回拨不超过这个值时沿用上次的时间戳继续排序列，超过才拒绝
      */
 
     private long workerId;
     private long dataCenterId;
     private long sequence;
-    private long initialTimestamp = 1288834974657L;
-    private long workerIdBits = 5L;
-    private long dataCenterIdBits = 5L;
-    private long maxWorkerId = -1L ^ (-1L << workerIdBits);
-    private long maxDataCenterId = -1L ^ (-1L << dataCenterIdBits);
-    private long sequenceBits = 12L;
-    private long workerIdShift = sequenceBits;
-    private long dataCenterIdShift = sequenceBits + workerIdBits;
-    private long timestampLeftShift = sequenceBits + workerIdBits + dataCenterIdBits;
-    private long sequenceMask = -1L ^ (-1L << sequenceBits);
+    private final SnowflakeLayout layout;
+    private final long initialTimestamp;
+    private final long workerIdBits;
+    private final long dataCenterIdBits;
+    private final long maxWorkerId;
+    private final long maxDataCenterId;
+    private final long sequenceBits;
+    private final long workerIdShift;
+    private final long dataCenterIdShift;
+    private final long timestampLeftShift;
+    private final long sequenceMask;
+    private final long maxTimestamp;
+    private final SnowflakeClock clock;
+    private final long maxBackwardTicks;
     private long lastTimestamp = -1L;
 
 
     public SnowflakeCreateId(long workerId, long dataCenterId, long sequence) {
+        this(SnowflakeLayout.DEFAULT, workerId, dataCenterId, sequence);
+    }
+
+    /**
+     * 按指定的位布局创建生成器，layout为秒粒度时下面所有的“毫秒”都换成“秒”
+     *
+     * @param layout       位布局
+     * @param workerId     机器id
+     * @param dataCenterId 机房id
+     * @param sequence     初始序列
+     */
+    public SnowflakeCreateId(SnowflakeLayout layout, long workerId, long dataCenterId, long sequence) {
+        this(layout, SnowflakeClock.SYSTEM, 0L, workerId, dataCenterId, sequence);
+    }
+
+    /**
+     * 指定时钟和可容忍的回拨量创建生成器
+     *
+     * @param layout            位布局
+     * @param clock             时钟
+     * @param maxBackwardMillis 可容忍的时钟回拨毫秒数，0表示和以前一样一回拨就拒绝
+     * @param workerId          机器id
+     * @param dataCenterId      机房id
+     * @param sequence          初始序列
+     */
+    public SnowflakeCreateId(SnowflakeLayout layout, SnowflakeClock clock, long maxBackwardMillis,
+                             long workerId, long dataCenterId, long sequence) {
+        if (maxBackwardMillis < 0) {
+            throw new IllegalArgumentException(
+                    String.format("max backward millis can't be less than 0: %d", maxBackwardMillis));
+        }
+        this.layout = layout;
+        this.clock = clock;
+        this.maxBackwardTicks = layout.toTicksCeil(maxBackwardMillis);
+        this.initialTimestamp = layout.getEpochTick();
+        this.workerIdBits = layout.getWorkerIdBits();
+        this.dataCenterIdBits = layout.getDataCenterIdBits();
+        this.maxWorkerId = layout.getMaxWorkerId();
+        this.maxDataCenterId = layout.getMaxDataCenterId();
+        this.sequenceBits = layout.getSequenceBits();
+        this.workerIdShift = layout.getWorkerIdShift();
+        this.dataCenterIdShift = layout.getDataCenterIdShift();
+        this.timestampLeftShift = layout.getTimestampLeftShift();
+        this.sequenceMask = layout.getSequenceMask();
+        this.maxTimestamp = layout.getMaxTimestamp();
+
         // sanity check for workerId
-        // 这儿不就检查了一下，要求就是你传递进来的机房id和机器id不能超过32，不能小于0
+        // 这儿不就检查了一下，要求就是你传递进来的机房id和机器id不能超过最大值，不能小于0
         if (workerId > maxWorkerId || workerId < 0) {
             throw new IllegalArgumentException(
                     String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
@@ -61,15 +115,10 @@ public class SnowflakeCreateId {
         this.sequence = sequence;
     }
 
+    @Override
     public synchronized long nextId() {
         // 这儿就是获取当前时间戳，单位是毫秒
-        long timestamp = timeGen();
-
-        if (timestamp < lastTimestamp) {
-            System.err.printf("clock is moving backwards.  Rejecting requests until %d.", lastTimestamp);
-            throw new RuntimeException(String.format(
-                    "clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
-        }
+        long timestamp = currentTimestamp();
 
         if (lastTimestamp == timestamp) {
             // 这个意思是说一个毫秒内最多只能有4096个数字
@@ -79,6 +128,7 @@ public class SnowflakeCreateId {
                 timestamp = tilNextMillis(lastTimestamp);
             }
         } else {
+            checkTimestamp(timestamp);
             sequence = 0;
         }
 
@@ -93,16 +143,111 @@ public class SnowflakeCreateId {
                 | (workerId << workerIdShift) | sequence;
     }
 
+    /**
+     * 批量获取ID，结果与连续调用 n 次 nextId() 的顺序一致
+     *
+     * @param n 需要的ID个数
+     * @return ID数组
+     */
+    public long[] nextIds(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException(String.format("id count can't be less than 0: %d", n));
+        }
+        long[] ids = new long[n];
+        fill(ids, 0, n);
+        return ids;
+    }
+
+    /**
+     * 批量获取ID并写入调用方提供的数组
+     * 一次加锁内按整段领取毫秒内的序列号，一个毫秒的序列用完才会去读下一个毫秒，不再每个ID都读一次时钟
+     *
+     * @param dst 目标数组
+     * @param off 起始下标
+     * @param len 需要的ID个数
+     */
+    public synchronized void fill(long[] dst, int off, int len) {
+        if (off < 0 || len < 0 || off > dst.length - len) {
+            throw new IndexOutOfBoundsException(
+                    String.format("offset %d, length %d, array length %d", off, len, dst.length));
+        }
+        int end = off + len;
+        while (off < end) {
+            long timestamp = currentTimestamp();
+
+            // 与 nextId() 相同的规则：同一毫秒内接着上次的序列往后排，序列用完就等下一毫秒并从0开始
+            long first;
+            if (lastTimestamp == timestamp) {
+                first = (sequence + 1) & sequenceMask;
+                if (first == 0) {
+                    timestamp = tilNextMillis(lastTimestamp);
+                }
+            } else {
+                checkTimestamp(timestamp);
+                first = 0;
+            }
+
+            long last = Math.min(sequenceMask, first + (end - off) - 1);
+            long prefix = ((timestamp - initialTimestamp) << timestampLeftShift) | (dataCenterId << dataCenterIdShift)
+                    | (workerId << workerIdShift);
+            for (long seq = first; seq <= last; seq++) {
+                dst[off++] = prefix | seq;
+            }
+
+            sequence = last;
+            lastTimestamp = timestamp;
+        }
+    }
+
+    public SnowflakeLayout getLayout() {
+        return layout;
+    }
+
+    public SnowflakeClock getClock() {
+        return clock;
+    }
+
+    /**
+     * 读当前时间并处理时钟回拨：
+     * 回拨在容忍范围内就当作还停留在上次的时间戳，继续往后排序列，序列用完时会在 tilNextMillis 里等时钟追上来；
+     * 超过容忍范围则和以前一样拒绝生成
+     */
+    private long currentTimestamp() {
+        long timestamp = timeGen();
+        if (timestamp < lastTimestamp) {
+            if (lastTimestamp - timestamp > maxBackwardTicks) {
+                // 时间戳都是布局的时间单位，秒粒度时要换算成毫秒再报告
+                System.err.printf("clock is moving backwards.  Rejecting requests until %d.",
+                        lastTimestamp * layout.getTickMillis());
+                throw new RuntimeException(String.format("clock moved backwards.  Refusing to generate id for %d milliseconds",
+                        (lastTimestamp - timestamp) * layout.getTickMillis()));
+            }
+            return lastTimestamp;
+        }
+        return timestamp;
+    }
+
+    /**
+     * 时间戳位数配置得比较少时，超出可表示范围的ID会把符号位写坏，这里直接拒绝
+     */
+    private void checkTimestamp(long timestamp) {
+        if (timestamp - initialTimestamp > maxTimestamp) {
+            throw new IllegalStateException(String.format(
+                    "timestamp bits exhausted for layout %s", layout));
+        }
+    }
+
     private long tilNextMillis(long lastTimestamp) {
         long timestamp = timeGen();
         while (timestamp <= lastTimestamp) {
             timestamp = timeGen();
         }
+        checkTimestamp(timestamp);
         return timestamp;
     }
 
     private long timeGen() {
-        return System.currentTimeMillis();
+        return layout.toTick(clock.currentTimeMillis());
     }
 
 
@@ -0,0 +1,148 @@
+package com.peter.common.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * @ClassName SnowflakeIdCodec
+ * @Description Snowflake ID的紧凑文本编码：Crockford Base32，定长13个字符（十进制要19个字符）
+ * 字母表本身按ASCII升序排列，又是定长编码，所以编码后的字符串排序和ID数值排序一致，仍然按时间有序
+ * 编码写入调用方提供的 char[]、byte[] 或 StringBuilder，解码直接从字符读出long，中间不创建任何对象
+ * 解码不区分大小写，并按Crockford的约定把 I、L 当作 1，O 当作 0
+ * 只保证非负ID（Snowflake ID都是非负的）的排序一致，负数按无符号编码，会排在所有正数后面
+ * @Author peter
+ * @Date 2026/10/18 19:30
+ * @Version 1.0
+ */
+public final class SnowflakeIdCodec {
+    /**
+     * ENCODED_LENGTH ：编码长度，13 * 5 = 65 位，第一个字符只用到低4位
+     */
+    public static final int ENCODED_LENGTH = 13;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] ALPHABET_BYTES = new byte[32];
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            ALPHABET_BYTES[i] = (byte) ALPHABET[i];
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        DECODE['I'] = DECODE['i'] = DECODE['L'] = DECODE['l'] = 1;
+        DECODE['O'] = DECODE['o'] = 0;
+    }
+
+    private SnowflakeIdCodec() {
+    }
+
+    /**
+     * 编码到字符数组
+     *
+     * @param id  ID
+     * @param dst 目标数组，从off开始需要13个位置
+     * @param off 起始下标
+     * @return 写入后的下一个下标
+     */
+    public static int encode(long id, char[] dst, int off) {
+        checkRange(dst.length, off);
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            dst[off + i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return off + ENCODED_LENGTH;
+    }
+
+    /**
+     * 编码成ASCII字节，适合直接写进网络缓冲区
+     *
+     * @param id  ID
+     * @param dst 目标数组，从off开始需要13个位置
+     * @param off 起始下标
+     * @return 写入后的下一个下标
+     */
+    public static int encode(long id, byte[] dst, int off) {
+        checkRange(dst.length, off);
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            dst[off + i] = ALPHABET_BYTES[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return off + ENCODED_LENGTH;
+    }
+
+    /**
+     * 追加到StringBuilder，拼JSON或URL时直接用
+     *
+     * @param id ID
+     * @param sb 目标
+     * @return 传入的sb
+     */
+    public static StringBuilder encode(long id, StringBuilder sb) {
+        for (int shift = (ENCODED_LENGTH - 1) * 5; shift >= 0; shift -= 5) {
+            sb.append(ALPHABET[(int) ((id >>> shift) & 31)]);
+        }
+        return sb;
+    }
+
+    /**
+     * 编码成字符串，会创建一个String
+     */
+    public static String toString(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        encode(id, chars, 0);
+        return new String(chars);
+    }
+
+    public static long decode(CharSequence src) {
+        if (src.length() != ENCODED_LENGTH) {
+            throw new IllegalArgumentException(
+                    String.format("encoded id must be %d characters: %s", ENCODED_LENGTH, src));
+        }
+        return decode(src, 0);
+    }
+
+    public static long decode(CharSequence src, int off) {
+        checkRange(src.length(), off);
+        long id = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            id = (id << 5) | digit(src.charAt(off + i), i);
+        }
+        return id;
+    }
+
+    public static long decode(char[] src, int off) {
+        checkRange(src.length, off);
+        long id = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            id = (id << 5) | digit(src[off + i], i);
+        }
+        return id;
+    }
+
+    public static long decode(byte[] src, int off) {
+        checkRange(src.length, off);
+        long id = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            id = (id << 5) | digit((char) (src[off + i] & 0xFF), i);
+        }
+        return id;
+    }
+
+    private static int digit(char c, int position) {
+        int value = c < 128 ? DECODE[c] : -1;
+        // 第一个字符只能表示高4位，大于15说明超出了64位
+        if (value < 0 || (position == 0 && value > 15)) {
+            throw new IllegalArgumentException(
+                    String.format("illegal character '%c' at position %d", c, position));
+        }
+        return value;
+    }
+
+    private static void checkRange(int length, int off) {
+        if (off < 0 || off > length - ENCODED_LENGTH) {
+            throw new IndexOutOfBoundsException(
+                    String.format("offset %d, need %d, length %d", off, ENCODED_LENGTH, length));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.peter.common.algorithm;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName SnowflakeLayout
+ * @Description Snowflake ID的位布局：时间戳、数据中心、机器、序列各占多少位，以及起始时间和时间粒度
+ * 构造时校验总位数为63（最高位符号位不用），并预先算好各段的偏移和掩码
+ * @Author peter
+ * @Date 2026/10/18 13:40
+ * @Version 1.0
+ */
+public final class SnowflakeLayout {
+    /**
+     * TOTAL_BITS ：除符号位外可用的位数
+     * DEFAULT_EPOCH ：默认的开始时间截，与原来 SnowflakeCreateId 中的 initialTimestamp 相同
+     * DEFAULT ：默认布局 41/5/5/12，毫秒粒度
+     */
+    public static final int TOTAL_BITS = 63;
+    public static final long DEFAULT_EPOCH = 1288834974657L;
+    public static final SnowflakeLayout DEFAULT = builder().build();
+
+    /**
+     * timestampBits ：时间戳所占的位数
+     * dataCenterIdBits ：数据标识id所占的位数
+     * workerIdBits ：机器id所占的位数
+     * sequenceBits ：序列在id中占的位数
+     * epochMillis ：开始时间截，单位毫秒
+     * tickMillis ：一个时间单位是多少毫秒，毫秒粒度为1，秒粒度为1000
+     * epochTick ：开始时间截换算成时间单位后的值
+     * maxTimestamp ：相对开始时间最多能表示多少个时间单位
+     * maxWorkerId / maxDataCenterId ：机器id和数据中心id的最大值
+     * sequenceMask ：生成序列的掩码
+     * workerIdShift / dataCenterIdShift / timestampLeftShift ：各段左移的位数
+     */
+    private final int timestampBits;
+    private final int dataCenterIdBits;
+    private final int workerIdBits;
+    private final int sequenceBits;
+    private final long epochMillis;
+    private final long tickMillis;
+    private final long epochTick;
+    private final long maxTimestamp;
+    private final long maxWorkerId;
+    private final long maxDataCenterId;
+    private final long sequenceMask;
+    private final int workerIdShift;
+    private final int dataCenterIdShift;
+    private final int timestampLeftShift;
+
+    private SnowflakeLayout(Builder builder) {
+        if (builder.timestampBits <= 0 || builder.sequenceBits <= 0
+                || builder.dataCenterIdBits < 0 || builder.workerIdBits < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "timestamp and sequence bits must be positive, id bits can't be negative: %d/%d/%d/%d",
+                    builder.timestampBits, builder.dataCenterIdBits, builder.workerIdBits, builder.sequenceBits));
+        }
+        int total = builder.timestampBits + builder.dataCenterIdBits + builder.workerIdBits + builder.sequenceBits;
+        if (total != TOTAL_BITS) {
+            throw new IllegalArgumentException(String.format(
+                    "layout must use exactly %d bits, got %d (%d/%d/%d/%d)", TOTAL_BITS, total,
+                    builder.timestampBits, builder.dataCenterIdBits, builder.workerIdBits, builder.sequenceBits));
+        }
+        if (builder.epochMillis < 0) {
+            throw new IllegalArgumentException(String.format("epoch can't be negative: %d", builder.epochMillis));
+        }
+        this.timestampBits = builder.timestampBits;
+        this.dataCenterIdBits = builder.dataCenterIdBits;
+        this.workerIdBits = builder.workerIdBits;
+        this.sequenceBits = builder.sequenceBits;
+        this.epochMillis = builder.epochMillis;
+        this.tickMillis = builder.timeUnit.toMillis(1);
+        this.epochTick = epochMillis / tickMillis;
+        this.maxTimestamp = -1L ^ (-1L << timestampBits);
+        this.maxWorkerId = -1L ^ (-1L << workerIdBits);
+        this.maxDataCenterId = -1L ^ (-1L << dataCenterIdBits);
+        this.sequenceMask = -1L ^ (-1L << sequenceBits);
+        this.workerIdShift = sequenceBits;
+        this.dataCenterIdShift = sequenceBits + workerIdBits;
+        this.timestampLeftShift = sequenceBits + workerIdBits + dataCenterIdBits;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 毫秒时间换算成时间单位（绝对值，未减去开始时间）
+     *
+     * @param millis 毫秒时间
+     * @return 时间单位
+     */
+    public long toTick(long millis) {
+        return tickMillis == 1L ? millis : millis / tickMillis;
+    }
+
+    /**
+     * 毫秒时长换算成时间单位，向上取整，秒粒度下不足一秒的时长也至少算一个单位
+     *
+     * @param millis 毫秒时长，不能为负
+     * @return 时间单位
+     */
+    public long toTicksCeil(long millis) {
+        return tickMillis == 1L ? millis : (millis + tickMillis - 1) / tickMillis;
+    }
+
+    /**
+     * 相对开始时间的时间单位换算回毫秒时间
+     *
+     * @param relativeTick ID中的时间戳部分
+     * @return 毫秒时间
+     */
+    public long toMillis(long relativeTick) {
+        return (relativeTick + epochTick) * tickMillis;
+    }
+
+    /**
+     * 把各段拼成ID，调用方负责保证各段都在范围内
+     */
+    public long compose(long relativeTick, long dataCenterId, long workerId, long sequence) {
+        return (relativeTick << timestampLeftShift) | (dataCenterId << dataCenterIdShift)
+                | (workerId << workerIdShift) | sequence;
+    }
+
+    public int getTimestampBits() {
+        return timestampBits;
+    }
+
+    public int getDataCenterIdBits() {
+        return dataCenterIdBits;
+    }
+
+    public int getWorkerIdBits() {
+        return workerIdBits;
+    }
+
+    public int getSequenceBits() {
+        return sequenceBits;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public long getEpochTick() {
+        return epochTick;
+    }
+
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public long getMaxWorkerId() {
+        return maxWorkerId;
+    }
+
+    public long getMaxDataCenterId() {
+        return maxDataCenterId;
+    }
+
+    public long getSequenceMask() {
+        return sequenceMask;
+    }
+
+    public int getWorkerIdShift() {
+        return workerIdShift;
+    }
+
+    public int getDataCenterIdShift() {
+        return dataCenterIdShift;
+    }
+
+    public int getTimestampLeftShift() {
+        return timestampLeftShift;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SnowflakeLayout[%d/%d/%d/%d, epoch=%d, tick=%dms]",
+                timestampBits, dataCenterIdBits, workerIdBits, sequenceBits, epochMillis, tickMillis);
+    }
+
+    public static final class Builder {
+        private int timestampBits = 41;
+        private int dataCenterIdBits = 5;
+        private int workerIdBits = 5;
+        private int sequenceBits = 12;
+        private long epochMillis = DEFAULT_EPOCH;
+        private TimeUnit timeUnit = TimeUnit.MILLISECONDS;
+
+        private Builder() {
+        }
+
+        public Builder timestampBits(int timestampBits) {
+            this.timestampBits = timestampBits;
+            return this;
+        }
+
+        public Builder dataCenterIdBits(int dataCenterIdBits) {
+            this.dataCenterIdBits = dataCenterIdBits;
+            return this;
+        }
+
+        public Builder workerIdBits(int workerIdBits) {
+            this.workerIdBits = workerIdBits;
+            return this;
+        }
+
+        public Builder sequenceBits(int sequenceBits) {
+            this.sequenceBits = sequenceBits;
+            return this;
+        }
+
+        public Builder epochMillis(long epochMillis) {
+            this.epochMillis = epochMillis;
+            return this;
+        }
+
+        /**
+         * 时间粒度，只支持毫秒和秒；秒粒度下同样的时间戳位数能覆盖更长的年限，
+         * 省下来的位可以分给序列，每个时间单位内能生成的ID多得多
+         */
+        public Builder timeUnit(TimeUnit timeUnit) {
+            if (timeUnit != TimeUnit.MILLISECONDS && timeUnit != TimeUnit.SECONDS) {
+                throw new IllegalArgumentException(String.format("unsupported time unit: %s", timeUnit));
+            }
+            this.timeUnit = timeUnit;
+            return this;
+        }
+
+        public SnowflakeLayout build() {
+            return new SnowflakeLayout(this);
+        }
+    }
+}
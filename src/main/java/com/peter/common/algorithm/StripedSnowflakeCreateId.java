@@ -0,0 +1,108 @@
+package com.peter.common.algorithm;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName StripedSnowflakeCreateId
+ * @Description 按CPU分条的Snowflake ID生成器：给每个条带分一个独立的机器id，线程第一次取ID时固定绑定到一个条带，
+ * 之后只在自己的条带上推进序列，各条带之间没有共享的可变状态，每毫秒能生成的ID数随条带数线性增长
+ * 不同条带的机器id互不相同，所以不会生成重复的ID；但ID只在同一个线程内递增，跨线程不保证先后顺序
+ * @Author peter
+ * @Date 2026/10/18 16:05
+ * @Version 1.0
+ */
+public class StripedSnowflakeCreateId implements IdGenerator {
+    /**
+     * stripes ：条带，第i个条带使用的机器id是 firstWorkerId + i
+     * nextStripe ：给新线程分配条带的轮询计数，只在线程第一次取ID时用到
+     * localStripe ：线程绑定的条带
+     */
+    private final SnowflakeLayout layout;
+    private final long dataCenterId;
+    private final long firstWorkerId;
+    private final LockFreeSnowflakeCreateId[] stripes;
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final ThreadLocal<LockFreeSnowflakeCreateId> localStripe = ThreadLocal.withInitial(this::assignStripe);
+
+    /**
+     * 条带数取CPU核数，受机器id剩余可用数量限制
+     *
+     * @param dataCenterId  机房id
+     * @param firstWorkerId 分给本实例的第一个机器id
+     */
+    public StripedSnowflakeCreateId(long dataCenterId, long firstWorkerId) {
+        this(SnowflakeLayout.DEFAULT, dataCenterId, firstWorkerId,
+                defaultStripes(SnowflakeLayout.DEFAULT, firstWorkerId));
+    }
+
+    public StripedSnowflakeCreateId(SnowflakeLayout layout, long dataCenterId, long firstWorkerId, int stripeCount) {
+        this(layout, SnowflakeClock.SYSTEM, 0L, dataCenterId, firstWorkerId, stripeCount);
+    }
+
+    /**
+     * 本实例会占用 [firstWorkerId, firstWorkerId + stripeCount) 这一段机器id，
+     * 部署时要保证同一机房内其他实例不会用到这段机器id
+     *
+     * @param layout            位布局
+     * @param clock             时钟
+     * @param maxBackwardMillis 可容忍的时钟回拨毫秒数
+     * @param dataCenterId      机房id
+     * @param firstWorkerId     分给本实例的第一个机器id
+     * @param stripeCount       条带数
+     */
+    public StripedSnowflakeCreateId(SnowflakeLayout layout, SnowflakeClock clock, long maxBackwardMillis,
+                                    long dataCenterId, long firstWorkerId, int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException(String.format("stripe count must be positive: %d", stripeCount));
+        }
+        if (firstWorkerId < 0 || firstWorkerId + stripeCount - 1 > layout.getMaxWorkerId()) {
+            throw new IllegalArgumentException(String.format(
+                    "worker Id range [%d, %d] is out of [0, %d]",
+                    firstWorkerId, firstWorkerId + stripeCount - 1, layout.getMaxWorkerId()));
+        }
+        this.layout = layout;
+        this.dataCenterId = dataCenterId;
+        this.firstWorkerId = firstWorkerId;
+        this.stripes = new LockFreeSnowflakeCreateId[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new LockFreeSnowflakeCreateId(layout, clock, maxBackwardMillis, firstWorkerId + i, dataCenterId);
+        }
+    }
+
+    @Override
+    public long nextId() {
+        return localStripe.get().nextId();
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    public long getFirstWorkerId() {
+        return firstWorkerId;
+    }
+
+    /**
+     * 本实例占用的最后一个机器id（包含）
+     */
+    public long getLastWorkerId() {
+        return firstWorkerId + stripes.length - 1;
+    }
+
+    public long getDataCenterId() {
+        return dataCenterId;
+    }
+
+    public SnowflakeLayout getLayout() {
+        return layout;
+    }
+
+    private LockFreeSnowflakeCreateId assignStripe() {
+        return stripes[(nextStripe.getAndIncrement() & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    private static int defaultStripes(SnowflakeLayout layout, long firstWorkerId) {
+        long available = layout.getMaxWorkerId() - firstWorkerId + 1;
+        return (int) Math.max(1L, Math.min(Runtime.getRuntime().availableProcessors(), available));
+    }
+}
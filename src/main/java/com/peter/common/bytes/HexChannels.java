@@ -0,0 +1,39 @@
+package com.peter.common.bytes;
+
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * @ClassName HexChannels
+ * @Description 十六进制编解码的Channel适配，内部就是 HexEncodingOutputStream / HexDecodingInputStream，同样按固定大小分块
+ * 下层Channel必须是阻塞模式，例如 FileChannel
+ * @Author peter
+ * @Date 2026/10/18 21:00
+ * @Version 1.0
+ */
+public class HexChannels {
+
+    private HexChannels() {
+    }
+
+    /**
+     * 写入的字节编码成十六进制后写到target
+     *
+     * @param target 十六进制的输出
+     * @return 写原始字节的Channel
+     */
+    public static WritableByteChannel encoding(WritableByteChannel target) {
+        return Channels.newChannel(new HexEncodingOutputStream(Channels.newOutputStream(target)));
+    }
+
+    /**
+     * 从source读十六进制，解码后返回原始字节
+     *
+     * @param source 十六进制的输入
+     * @return 读原始字节的Channel
+     */
+    public static ReadableByteChannel decoding(ReadableByteChannel source) {
+        return Channels.newChannel(new HexDecodingInputStream(Channels.newInputStream(source)));
+    }
+}
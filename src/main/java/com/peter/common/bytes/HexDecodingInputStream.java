@@ -0,0 +1,119 @@
+package com.peter.common.bytes;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @ClassName HexDecodingInputStream
+ * @Description 从下层输入流读十六进制ASCII（大小写均可），解码后返回原始字节，按固定大小分块转换，内存占用和数据量无关
+ * 遇到非法字符或者十六进制字符个数为奇数时抛出IOException
+ * @Author peter
+ * @Date 2026/10/18 20:50
+ * @Version 1.0
+ */
+public class HexDecodingInputStream extends FilterInputStream {
+    /**
+     * DEFAULT_CHUNK_SIZE ：每次最多解码出的字节数，读缓冲区是它的两倍
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /**
+     * hex ：读缓冲区
+     * pending ：上次读到奇数个字符时留下的最后一个字符，放在hex[0]，值为0或1
+     * position ：已经读过的十六进制字符数，用于报错时定位
+     */
+    private final byte[] hex;
+    private final byte[] single = new byte[1];
+    private int pending;
+    private long position;
+
+    public HexDecodingInputStream(InputStream in) {
+        this(in, DEFAULT_CHUNK_SIZE);
+    }
+
+    public HexDecodingInputStream(InputStream in, int chunkSize) {
+        super(in);
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(String.format("chunk size must be positive: %d", chunkSize));
+        }
+        this.hex = new byte[chunkSize << 1];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        int want = (int) Math.min(2L * len, hex.length);
+        int n = pending;
+        while (n < 2) {
+            int r = in.read(hex, n, want - n);
+            if (r < 0) {
+                if (n == 0) {
+                    return -1;
+                }
+                throw new EOFException(String.format("odd number of hex characters, %d read", position + n));
+            }
+            n += r;
+        }
+        int chars = n & ~1;
+        try {
+            HexUtils.decode(hex, 0, chars, b, off);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(String.format("invalid hex data after %d characters", position), e);
+        }
+        position += chars;
+        pending = n - chars;
+        if (pending == 1) {
+            hex[0] = hex[n - 1];
+        }
+        return chars >> 1;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] discard = new byte[(int) Math.min(n, hex.length >> 1)];
+        long skipped = 0;
+        while (skipped < n) {
+            int r = read(discard, 0, (int) Math.min(n - skipped, discard.length));
+            if (r < 0) {
+                break;
+            }
+            skipped += r;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (in.available() + pending) >> 1;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+}
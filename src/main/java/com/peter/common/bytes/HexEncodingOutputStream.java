@@ -0,0 +1,56 @@
+package com.peter.common.bytes;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * @ClassName HexEncodingOutputStream
+ * @Description 写入的字节按大写十六进制ASCII写到下层输出流，按固定大小分块转换，内存占用和数据量无关
+ * @Author peter
+ * @Date 2026/10/18 20:40
+ * @Version 1.0
+ */
+public class HexEncodingOutputStream extends FilterOutputStream {
+    /**
+     * DEFAULT_CHUNK_SIZE ：每次转换的原始字节数，输出缓冲区是它的两倍
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final int chunkSize;
+    private final byte[] hex;
+    private final byte[] single = new byte[1];
+
+    public HexEncodingOutputStream(OutputStream out) {
+        this(out, DEFAULT_CHUNK_SIZE);
+    }
+
+    public HexEncodingOutputStream(OutputStream out, int chunkSize) {
+        super(out);
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(String.format("chunk size must be positive: %d", chunkSize));
+        }
+        this.chunkSize = chunkSize;
+        this.hex = new byte[chunkSize << 1];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        out.write(hex, 0, HexUtils.encode(single, 0, 1, hex, 0));
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int n = Math.min(len, chunkSize);
+            int written = HexUtils.encode(b, off, n, hex, 0);
+            out.write(hex, 0, written);
+            off += n;
+            len -= n;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.peter.common.bytes;
 
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * @author peter
  */
 public class HexUtils {
-    private static final String STRING = "0123456789ABCDEF";
 
     /**
      * 用于建立十六进制字符的输出的小写字符数组
@@ -19,87 +22,197 @@ public class HexUtils {
     private static final char[] DIGITS_UPPER = {'0', '1', '2', '3', '4', '5',
             '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
 
+    /**
+     * 十六进制字符到数值的查找表，大小写都支持，非法字符为-1
+     */
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            DECODE[DIGITS_UPPER[i]] = (byte) i;
+            DECODE[DIGITS_LOWER[i]] = (byte) i;
+        }
+    }
+
 
     /**
      * 字符串转换成十六进制字符串
      *
      * @param str 待转换的ASCII字符串
-     * @return String 每个Byte之间空格分隔，如: [61 6C 6B]
+     * @return String 如: 616C6B
      */
     public static String str2HexStr(String str) {
-        char[] chars = STRING.toCharArray();
-        StringBuilder sb = new StringBuilder("");
         byte[] bs = str.getBytes();
-        int bit;
-        for (int i = 0; i < bs.length; i++) {
-            bit = (bs[i] & 0x0f0) >> 4;
-            sb.append(chars[bit]);
-            bit = bs[i] & 0x0f;
-            sb.append(chars[bit]);
-//            sb.append(' ');
-        }
-        return sb.toString().trim();
+        char[] chars = new char[bs.length << 1];
+        encode(bs, 0, bs.length, chars, 0);
+        return new String(chars);
     }
 
     /**
      * 十六进制转换字符串
      *
-     * @param
+     * @param hexStr 十六进制字符串，大小写均可
      * @return String 对应的字符串
      */
     public static String hexStr2Str(String hexStr) {
-        String str = STRING;
-        char[] hexs = hexStr.toCharArray();
-        byte[] bytes = new byte[hexStr.length() / 2];
-        int n;
-        for (int i = 0; i < bytes.length; i++) {
-            n = str.indexOf(hexs[2 * i]) * 16;
-            n += str.indexOf(hexs[2 * i + 1]);
-            bytes[i] = (byte) (n & 0xff);
-        }
-        return new String(bytes);
+        return new String(hexStringToByte(hexStr));
     }
 
     /**
      * 字节数组转16进制
      *
      * @param bArr 字节数组
-     * @return String 字符串
+     * @return String 大写的十六进制字符串
      */
     public static String bytesToHexString(byte[] bArr) {
-        StringBuffer sb = new StringBuffer(bArr.length);
-        String sTmp;
-        for (int i = 0; i < bArr.length; i++) {
-            sTmp = Integer.toHexString(0xFF & bArr[i]);
-            if (sTmp.length() < 2) {
-                sb.append(0);
-            }
-            sb.append(sTmp.toUpperCase());
-        }
-        return sb.toString();
+        char[] chars = new char[bArr.length << 1];
+        encode(bArr, 0, bArr.length, chars, 0);
+        return new String(chars);
     }
 
     /**
      * 16进制数转 字节数组
      *
-     * @param hex 字符串
+     * @param hex 字符串，大小写均可
      * @return 字节数组
      */
     public static byte[] hexStringToByte(String hex) {
-        int len = hex.length() / 2;
-        byte[] result = new byte[len];
-        char[] chars = hex.toCharArray();
-        for (int i = 0; i < len; i++) {
-            int pos = i * 2;
-            result[i] = (byte) (toByte(chars[pos]) << 4 | toByte(chars[pos + 1]));
-        }
+        byte[] result = new byte[checkHexLength(hex.length()) >> 1];
+        decode(hex, 0, hex.length(), result, 0);
         return result;
     }
 
+    /**
+     * 编码成大写十六进制，写入调用方提供的字符数组
+     *
+     * @param src    源数组
+     * @param off    源起始下标
+     * @param len    编码的字节数
+     * @param dst    目标数组，需要 len * 2 个位置
+     * @param dstOff 目标起始下标
+     * @return 写入后的下一个下标
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int dstOff) {
+        return encode(src, off, len, dst, dstOff, DIGITS_UPPER);
+    }
 
-    private static int toByte(char c) {
-        byte b = (byte) STRING.indexOf(c);
-        return b;
+    /**
+     * 编码成十六进制，写入调用方提供的字符数组
+     *
+     * @param toLowerCase 是否输出小写
+     * @return 写入后的下一个下标
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int dstOff, boolean toLowerCase) {
+        return encode(src, off, len, dst, dstOff, toLowerCase ? DIGITS_LOWER : DIGITS_UPPER);
+    }
+
+    /**
+     * 编码成大写十六进制的ASCII字节
+     *
+     * @return 写入后的下一个下标
+     */
+    public static int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        checkRange(src.length, off, len);
+        checkRange(dst.length, dstOff, len << 1);
+        for (int i = off, end = off + len; i < end; i++) {
+            int b = src[i];
+            dst[dstOff++] = (byte) DIGITS_UPPER[(b >> 4) & 0x0F];
+            dst[dstOff++] = (byte) DIGITS_UPPER[b & 0x0F];
+        }
+        return dstOff;
+    }
+
+    /**
+     * 解码到调用方提供的字节数组，遇到非法字符立即抛出异常
+     *
+     * @param src    十六进制字符，大小写均可
+     * @param off    起始下标
+     * @param len    字符数，必须是偶数
+     * @param dst    目标数组，需要 len / 2 个位置
+     * @param dstOff 目标起始下标
+     * @return 写入后的下一个下标
+     */
+    public static int decode(CharSequence src, int off, int len, byte[] dst, int dstOff) {
+        checkHexLength(len);
+        checkRange(src.length(), off, len);
+        checkRange(dst.length, dstOff, len >> 1);
+        for (int i = off, end = off + len; i < end; i += 2) {
+            dst[dstOff++] = decodeByte(src.charAt(i), src.charAt(i + 1), i);
+        }
+        return dstOff;
+    }
+
+    /**
+     * 解码ASCII字节形式的十六进制
+     *
+     * @return 写入后的下一个下标
+     */
+    public static int decode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        checkHexLength(len);
+        checkRange(src.length, off, len);
+        checkRange(dst.length, dstOff, len >> 1);
+        for (int i = off, end = off + len; i < end; i += 2) {
+            dst[dstOff++] = decodeByte((char) (src[i] & 0xFF), (char) (src[i + 1] & 0xFF), i);
+        }
+        return dstOff;
+    }
+
+    /**
+     * 直接解码到ByteBuffer（堆内外均可），空间不够时在写入之前就抛出 BufferOverflowException
+     *
+     * @param src 十六进制字符，大小写均可
+     * @param off 起始下标
+     * @param len 字符数，必须是偶数
+     * @param dst 目标缓冲区
+     */
+    public static void decode(CharSequence src, int off, int len, ByteBuffer dst) {
+        checkHexLength(len);
+        checkRange(src.length(), off, len);
+        if (dst.remaining() < len >> 1) {
+            throw new BufferOverflowException();
+        }
+        for (int i = off, end = off + len; i < end; i += 2) {
+            dst.put(decodeByte(src.charAt(i), src.charAt(i + 1), i));
+        }
+    }
+
+    private static int encode(byte[] src, int off, int len, char[] dst, int dstOff, char[] digits) {
+        checkRange(src.length, off, len);
+        checkRange(dst.length, dstOff, len << 1);
+        for (int i = off, end = off + len; i < end; i++) {
+            int b = src[i];
+            dst[dstOff++] = digits[(b >> 4) & 0x0F];
+            dst[dstOff++] = digits[b & 0x0F];
+        }
+        return dstOff;
+    }
+
+    /**
+     * 两个字符解码成一个字节；两个值或起来小于0就说明至少有一个非法字符
+     */
+    static byte decodeByte(char high, char low, int position) {
+        int h = high < 128 ? DECODE[high] : -1;
+        int l = low < 128 ? DECODE[low] : -1;
+        if ((h | l) < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "illegal hex character '%c' at position %d", h < 0 ? high : low, h < 0 ? position : position + 1));
+        }
+        return (byte) (h << 4 | l);
+    }
+
+    private static int checkHexLength(int len) {
+        if ((len & 1) != 0) {
+            throw new IllegalArgumentException(String.format("hex length must be even: %d", len));
+        }
+        return len;
+    }
+
+    private static void checkRange(int length, int off, int len) {
+        if (off < 0 || len < 0 || off > length - len) {
+            throw new IndexOutOfBoundsException(
+                    String.format("offset %d, length %d, array length %d", off, len, length));
+        }
     }
 
 
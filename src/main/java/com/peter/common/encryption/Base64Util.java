@@ -1,38 +1,110 @@
 package com.peter.common.encryption;
 
-import org.apache.commons.codec.binary.Base64;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.UnsupportedEncodingException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
 
 /**
  * @ClassName Base64Util
- * @Description 将字符串简单的加密
+ * @Description 将字符串简单的加密；以及 byte[] / ByteBuffer / 流 形式的Base64编解码
+ * 编码支持标准、URL安全、MIME三种字母表；解码不区分字母表，+/ 和 -_ 都认，忽略空白和换行，遇到 = 结束，其他字符一律报错
+ * 整块数组的编解码交给 java.util.Base64（比逐字节查表快一个数量级以上，见 Base64UtilBenchmark），这里只补上JDK没有的：
+ * 编解码到数组的指定位置和直接缓冲区、先检查目标空间再写入、混用两种字母表以及带空白的输入；
+ * 这些JDK做不了的情况用查表循环直接读写调用方的数组和缓冲区，不分配和数据一样大的临时数组
  * @Author peter
  * @Date 2019/7/3 17:15
  * @Version 1.0
  */
 public class Base64Util {
-    private static final Logger LOG = LoggerFactory.getLogger(Base64Util.class);
-    private static final String UTF_8 = "UTF-8";
+
+    /**
+     * 编码使用的字母表
+     * STANDARD ：标准字母表，带 = 填充
+     * URL_SAFE ：URL安全字母表（- 和 _），带 = 填充
+     * URL_SAFE_NO_PADDING ：URL安全字母表，不填充，适合放在URL、Cookie、请求头里
+     * MIME ：标准字母表，每76个字符插入一个 \r\n
+     */
+    public enum Alphabet {
+        STANDARD(Base64.getEncoder(), STANDARD_CHARS, true, 0),
+        URL_SAFE(Base64.getUrlEncoder(), URL_SAFE_CHARS, true, 0),
+        URL_SAFE_NO_PADDING(Base64.getUrlEncoder().withoutPadding(), URL_SAFE_CHARS, false, 0),
+        MIME(Base64.getMimeEncoder(), STANDARD_CHARS, true, MIME_LINE_LENGTH);
+
+        private final Base64.Encoder encoder;
+        private final byte[] table;
+        private final boolean padding;
+        private final int lineLength;
+
+        Alphabet(Base64.Encoder encoder, String chars, boolean padding, int lineLength) {
+            this.encoder = encoder;
+            this.table = chars.getBytes(StandardCharsets.US_ASCII);
+            this.padding = padding;
+            this.lineLength = lineLength;
+        }
+    }
+
+    private static final int MIME_LINE_LENGTH = 76;
+    private static final String STANDARD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    private static final String URL_SAFE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    /**
+     * ENCODE_CHUNK ：编码到指定位置或缓冲区时每段的字节数，是3和57的倍数，满一段时不会有填充，MIME正好12整行
+     * ENCODE_INPUT / ENCODE_OUTPUT ：线程私有的分段缓冲区，大小固定，和数据大小无关
+     */
+    private static final int ENCODE_CHUNK = 57 * 12;
+    private static final ThreadLocal<byte[]> ENCODE_INPUT = ThreadLocal.withInitial(() -> new byte[ENCODE_CHUNK]);
+    private static final ThreadLocal<byte[]> ENCODE_OUTPUT = ThreadLocal.withInitial(
+            () -> new byte[ENCODE_CHUNK / 3 * 4 + ENCODE_CHUNK / 57 * 2]);
+
+    /**
+     * DECODE ：解码查找表，两种字母表都能解，-1 非法字符，-2 空白（跳过），-3 填充（结束）
+     */
+    private static final byte[] DECODE = new byte[128];
+    private static final int WHITESPACE = -2;
+    private static final int PAD = -3;
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < 64; i++) {
+            DECODE[STANDARD_CHARS.charAt(i)] = (byte) i;
+        }
+        DECODE['-'] = DECODE['+'];
+        DECODE['_'] = DECODE['/'];
+        DECODE[' '] = DECODE['\t'] = DECODE['\r'] = DECODE['\n'] = WHITESPACE;
+        DECODE['='] = PAD;
+    }
 
     /**
      * 加密字符串
+     * 和原来基于 commons-codec 的实现一样宽松：跳过不认识的字符，末尾凑不成一个字节的残余丢掉，所以不会返回null
      *
      * @param inputData  加密的内容
      * @return 返回加密的字符串
      */
     public static String decodeData(String inputData) {
-        try {
-            if (null == inputData) {
-                return null;
+        if (null == inputData) {
+            return null;
+        }
+        StringBuilder standard = new StringBuilder(inputData.length());
+        for (int i = 0; i < inputData.length(); i++) {
+            char c = inputData.charAt(i);
+            int v = c < 128 ? DECODE[c] : -1;
+            if (v == PAD) {
+                break;
             }
-            return new String(Base64.decodeBase64(inputData.getBytes(UTF_8)), UTF_8);
-        } catch (UnsupportedEncodingException e) {
-            LOG.error(inputData, e);
+            if (v >= 0) {
+                standard.append(c == '-' ? '+' : c == '_' ? '/' : c);
+            }
+        }
+        if (standard.length() % 4 == 1) {
+            standard.setLength(standard.length() - 1);
         }
-        return null;
+        return new String(Base64.getDecoder().decode(standard.toString()), StandardCharsets.UTF_8);
     }
 
     /**
@@ -42,15 +114,415 @@ public class Base64Util {
      * @return 解密后的内容
      */
     public static String encodeData(String inputData) {
+        if (null == inputData) {
+            return null;
+        }
+        return encodeToString(inputData.getBytes(StandardCharsets.UTF_8), Alphabet.STANDARD);
+    }
+
+    /**
+     * 编码后的精确长度，可以用来预先分配输出缓冲区
+     *
+     * @param len      原始字节数
+     * @param alphabet 字母表
+     * @return 编码后的字节数
+     */
+    public static int encodedLength(int len, Alphabet alphabet) {
+        long groups = len / 3;
+        int rem = len % 3;
+        long n = groups * 4 + (rem == 0 ? 0 : alphabet.padding ? 4 : rem + 1);
+        if (alphabet.lineLength > 0 && n > 0) {
+            n += (n - 1) / alphabet.lineLength * 2;
+        }
+        if (n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("input too large to encode: %d", len));
+        }
+        return (int) n;
+    }
+
+    /**
+     * 解码后的精确长度，会扫描一遍输入，跳过空白、遇到 = 结束
+     *
+     * @param src 编码后的字节
+     * @param off 起始下标
+     * @param len 长度
+     * @return 解码后的字节数
+     */
+    public static int decodedLength(byte[] src, int off, int len) {
+        checkRange(src.length, off, len);
+        return decodedLength(ByteBuffer.wrap(src, off, len));
+    }
+
+    public static byte[] encode(byte[] src) {
+        return encode(src, Alphabet.STANDARD);
+    }
+
+    public static byte[] encode(byte[] src, Alphabet alphabet) {
+        return alphabet.encoder.encode(src);
+    }
+
+    public static String encodeToString(byte[] src) {
+        return encodeToString(src, Alphabet.STANDARD);
+    }
+
+    public static String encodeToString(byte[] src, Alphabet alphabet) {
+        return alphabet.encoder.encodeToString(src);
+    }
+
+    /**
+     * 编码到调用方提供的数组，长度用 encodedLength 预先算好
+     * 编码整个 src 并写到 dst 开头时交给JDK；否则JDK的接口不支持，分段编码后直接写到 dst 的指定位置
+     *
+     * @param src      原始数据
+     * @param off      起始下标
+     * @param len      长度
+     * @param dst      目标数组
+     * @param dstOff   目标起始下标
+     * @param alphabet 字母表
+     * @return 写入后的下一个下标
+     */
+    public static int encode(byte[] src, int off, int len, byte[] dst, int dstOff, Alphabet alphabet) {
+        checkRange(src.length, off, len);
+        int need = encodedLength(len, alphabet);
+        checkRange(dst.length, dstOff, need);
+        if (off == 0 && len == src.length && dstOff == 0) {
+            return alphabet.encoder.encode(src, dst);
+        }
+        encodeTo(ByteBuffer.wrap(src, off, len), ByteBuffer.wrap(dst, dstOff, need), alphabet);
+        return dstOff + need;
+    }
+
+    /**
+     * 把src剩余的字节编码后写入dst，dst剩余空间不够时在写入之前抛出异常
+     *
+     * @param src      原始数据，读完后position移到limit
+     * @param dst      目标缓冲区
+     * @param alphabet 字母表
+     */
+    public static void encode(ByteBuffer src, ByteBuffer dst, Alphabet alphabet) {
+        int need = encodedLength(src.remaining(), alphabet);
+        if (dst.remaining() < need) {
+            throw new IllegalArgumentException(
+                    String.format("destination too small, need %d, remaining %d", need, dst.remaining()));
+        }
+        if (src.hasArray() && dst.hasArray()) {
+            // 堆内缓冲区按数组处理，整个数组时还能走JDK
+            int end = encode(src.array(), src.arrayOffset() + src.position(), src.remaining(),
+                    dst.array(), dst.arrayOffset() + dst.position(), alphabet);
+            src.position(src.limit());
+            dst.position(end - dst.arrayOffset());
+            return;
+        }
+        encodeTo(src, dst, alphabet);
+    }
+
+    public static ByteBuffer encode(ByteBuffer src, Alphabet alphabet) {
+        return alphabet.encoder.encode(src);
+    }
+
+    public static byte[] decode(byte[] src) {
         try {
-            if (null == inputData) {
-                return null;
+            return Base64.getDecoder().decode(src);
+        } catch (IllegalArgumentException e) {
+            // 带空白、URL安全字母表或者 = 之后还有内容，整理成标准格式再解
+            return Base64.getDecoder().decode(normalize(src, 0, src.length));
+        }
+    }
+
+    /**
+     * 解码字符串
+     *
+     * @param src 编码后的字符串
+     * @return 原始数据
+     */
+    public static byte[] decode(CharSequence src) {
+        String text = src.toString();
+        try {
+            return Base64.getDecoder().decode(text);
+        } catch (IllegalArgumentException e) {
+            byte[] ascii = new byte[text.length()];
+            for (int i = 0; i < ascii.length; i++) {
+                // 非ASCII字符直接在 value 里报错，不能先转成 byte 截断
+                ascii[i] = (byte) (text.charAt(i) < 128 ? text.charAt(i) : value(text.charAt(i), i));
+            }
+            return Base64.getDecoder().decode(normalize(ascii, 0, ascii.length));
+        }
+    }
+
+    /**
+     * 解码到调用方提供的数组，长度用 decodedLength 预先算好；空间不够时在写入之前抛出异常
+     *
+     * @param src    编码后的字节
+     * @param off    起始下标
+     * @param len    长度
+     * @param dst    目标数组
+     * @param dstOff 目标起始下标
+     * @return 写入后的下一个下标
+     */
+    public static int decode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        checkRange(src.length, off, len);
+        checkRange(dst.length, dstOff, 0);
+        if (off == 0 && len == src.length && dstOff == 0 && (len & 3) == 0
+                && plainDecodedLength(src) <= dst.length) {
+            try {
+                return Base64.getDecoder().decode(src, dst);
+            } catch (IllegalArgumentException e) {
+                // 带空白、URL安全字母表或者 = 之后还有内容，下面逐个字符解，写坏的部分会被覆盖
+            }
+        }
+        ByteBuffer in = ByteBuffer.wrap(src, off, len);
+        int need = decodedLength(in);
+        if (need > dst.length - dstOff) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "destination too small, need %d, remaining %d", need, dst.length - dstOff));
+        }
+        decodeTo(in, ByteBuffer.wrap(dst, dstOff, need));
+        return dstOff + need;
+    }
+
+    /**
+     * 把src剩余的字节解码后写入dst，dst剩余空间不够时在写入之前抛出异常，src和dst都保持不变
+     *
+     * @param src 编码后的数据，读完后position移到limit
+     * @param dst 目标缓冲区
+     */
+    public static void decode(ByteBuffer src, ByteBuffer dst) {
+        int need = decodedLength(src);
+        if (dst.remaining() < need) {
+            throw new IllegalArgumentException(
+                    String.format("destination too small, need %d, remaining %d", need, dst.remaining()));
+        }
+        decodeTo(src, dst);
+        src.position(src.limit());
+    }
+
+    /**
+     * 写到返回的流里的数据会编码后写到out，关闭返回的流时补齐末尾并关闭out
+     *
+     * @param out      编码后数据的去处
+     * @param alphabet 字母表
+     * @return 写原始数据的流
+     */
+    public static OutputStream wrap(OutputStream out, Alphabet alphabet) {
+        return alphabet.encoder.wrap(out);
+    }
+
+    /**
+     * 从返回的流里读到的是in里的数据解码后的结果，规则和 decode 一致：两种字母表都能解，忽略空白和换行，
+     * 遇到其他字符时读取抛出IOException
+     *
+     * @param in 编码后的数据
+     * @return 读原始数据的流
+     */
+    public static InputStream wrap(InputStream in) {
+        return Base64.getMimeDecoder().wrap(new StrictStandardInputStream(in));
+    }
+
+    /**
+     * 去掉空白，- _ 换成 + /，截到第一个 = 为止，遇到其他字符报错
+     *
+     * @return 只含标准字母表字符、没有填充的数组
+     */
+    private static byte[] normalize(byte[] src, int off, int len) {
+        byte[] out = new byte[len];
+        int n = 0;
+        for (int i = off, end = off + len; i < end; i++) {
+            int c = src[i] & 0xFF;
+            int v = value(c, i - off);
+            if (v == PAD) {
+                break;
+            }
+            if (v >= 0) {
+                out[n++] = (byte) (c == '-' ? '+' : c == '_' ? '/' : c);
+            }
+        }
+        decodedLength(n);
+        return n == len ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * 扫描 src 剩余的字节算出解码后的长度，同时检查非法字符；不移动 position
+     */
+    private static int decodedLength(ByteBuffer src) {
+        long chars = 0;
+        for (int i = src.position(), end = src.limit(); i < end; i++) {
+            int v = value(src.get(i) & 0xFF, i - src.position());
+            if (v == PAD) {
+                break;
+            }
+            if (v >= 0) {
+                chars++;
+            }
+        }
+        return decodedLength(chars);
+    }
+
+    /**
+     * 没有空白的标准输入（长度是4的倍数）解码后的长度，只看末尾的 =，JDK解码前用来检查目标数组的空间
+     */
+    private static int plainDecodedLength(byte[] src) {
+        int len = src.length;
+        int pad = len == 0 ? 0 : src[len - 1] != '=' ? 0 : src[len - 2] != '=' ? 1 : 2;
+        return len / 4 * 3 - pad;
+    }
+
+    /**
+     * 编码 src 剩余的字节写入 dst，调用方已经检查过 dst 的空间
+     * 每段先整段读进线程私有的定长数组：满一段的交给JDK编码，不够一段的尾巴查表编码，再整段写出
+     */
+    private static void encodeTo(ByteBuffer src, ByteBuffer dst, Alphabet alphabet) {
+        byte[] in = ENCODE_INPUT.get();
+        byte[] out = ENCODE_OUTPUT.get();
+        boolean first = true;
+        while (src.hasRemaining()) {
+            int len = Math.min(src.remaining(), ENCODE_CHUNK);
+            src.get(in, 0, len);
+            int n = len == ENCODE_CHUNK ? alphabet.encoder.encode(in, out) : encodeTail(in, len, out, alphabet);
+            if (!first && alphabet.lineLength > 0) {
+                // 每段都以整行结束，段与段之间补上换行
+                dst.put((byte) '\r').put((byte) '\n');
+            }
+            dst.put(out, 0, n);
+            first = false;
+        }
+    }
+
+    /**
+     * 查表编码 in[0, len)，每3个字节一组，MIME每76个字符插入一个 \r\n
+     *
+     * @return 写入 out 的字节数
+     */
+    private static int encodeTail(byte[] in, int len, byte[] out, Alphabet alphabet) {
+        byte[] table = alphabet.table;
+        int sp = 0;
+        int dp = 0;
+        int line = 0;
+        for (int end = len - len % 3; sp < end; sp += 3) {
+            if (line == alphabet.lineLength && line > 0) {
+                out[dp++] = '\r';
+                out[dp++] = '\n';
+                line = 0;
+            }
+            int bits = (in[sp] & 0xFF) << 16 | (in[sp + 1] & 0xFF) << 8 | (in[sp + 2] & 0xFF);
+            out[dp++] = table[bits >>> 18];
+            out[dp++] = table[(bits >>> 12) & 0x3F];
+            out[dp++] = table[(bits >>> 6) & 0x3F];
+            out[dp++] = table[bits & 0x3F];
+            line += 4;
+        }
+        int rem = len - sp;
+        if (rem == 0) {
+            return dp;
+        }
+        if (line == alphabet.lineLength && line > 0) {
+            out[dp++] = '\r';
+            out[dp++] = '\n';
+        }
+        int b0 = in[sp] & 0xFF;
+        out[dp++] = table[b0 >>> 2];
+        if (rem == 1) {
+            out[dp++] = table[(b0 << 4) & 0x3F];
+            if (alphabet.padding) {
+                out[dp++] = '=';
+                out[dp++] = '=';
+            }
+        } else {
+            int b1 = in[sp + 1] & 0xFF;
+            out[dp++] = table[(b0 << 4 | b1 >>> 4) & 0x3F];
+            out[dp++] = table[(b1 << 2) & 0x3F];
+            if (alphabet.padding) {
+                out[dp++] = '=';
+            }
+        }
+        return dp;
+    }
+
+    /**
+     * 查表解码 src 剩余的字节写入 dst，调用方已经用 decodedLength 检查过非法字符和 dst 的空间
+     */
+    private static void decodeTo(ByteBuffer src, ByteBuffer dst) {
+        int bits = 0;
+        int n = 0;
+        while (src.hasRemaining()) {
+            int v = DECODE[src.get() & 0x7F];
+            if (v == PAD) {
+                break;
+            }
+            if (v < 0) {
+                continue;
+            }
+            bits = bits << 6 | v;
+            if (++n == 4) {
+                dst.put((byte) (bits >> 16)).put((byte) (bits >> 8)).put((byte) bits);
+                bits = 0;
+                n = 0;
+            }
+        }
+        if (n == 2) {
+            dst.put((byte) (bits >> 4));
+        } else if (n == 3) {
+            dst.put((byte) (bits >> 10)).put((byte) (bits >> 2));
+        }
+    }
+
+    private static int decodedLength(long chars) {
+        long rem = chars % 4;
+        if (rem == 1) {
+            throw new IllegalArgumentException("truncated base64 input");
+        }
+        return (int) (chars / 4 * 3 + (rem == 0 ? 0 : rem - 1));
+    }
+
+    private static int value(int c, int position) {
+        int v = c < 128 ? DECODE[c] : -1;
+        if (v == -1) {
+            throw new IllegalArgumentException(
+                    String.format("illegal base64 character '%c' at position %d", (char) c, position));
+        }
+        return v;
+    }
+
+    private static void checkRange(int length, int off, int len) {
+        if (off < 0 || len < 0 || off > length - len) {
+            throw new IndexOutOfBoundsException(
+                    String.format("offset %d, length %d, array length %d", off, len, length));
+        }
+    }
+
+    /**
+     * JDK的MIME解码器会直接丢弃不认识的字符（包括 - 和 _），先在这里检查并把 - _ 换成 + /，
+     * 这样流和 decode 对非法字符的处理一致
+     */
+    private static final class StrictStandardInputStream extends FilterInputStream {
+        private long position;
+
+        private StrictStandardInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = in.read();
+            return c < 0 ? c : translate(c);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            for (int i = off; i < off + n; i++) {
+                b[i] = (byte) translate(b[i] & 0xFF);
+            }
+            return n;
+        }
+
+        private int translate(int c) throws IOException {
+            if (c >= 128 || DECODE[c] == -1) {
+                throw new IOException(
+                        String.format("illegal base64 character '%c' at position %d", (char) c, position));
             }
-            return new String(Base64.encodeBase64(inputData.getBytes(UTF_8)), UTF_8);
-        } catch (UnsupportedEncodingException e) {
-            LOG.error(inputData, e);
+            position++;
+            return c == '-' ? '+' : c == '_' ? '/' : c;
         }
-        return null;
     }
 
     public static void main(String[] args) {
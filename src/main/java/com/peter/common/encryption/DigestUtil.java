@@ -0,0 +1,138 @@
+package com.peter.common.encryption;
+
+import com.peter.common.bytes.HexUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @ClassName DigestUtil
+ * @Description 消息摘要：每个线程按算法各缓存一个 MessageDigest，省掉每次 getInstance 遍历 Provider 列表的开销
+ * 支持从 ByteBuffer（堆内外均可）和 InputStream 流式输入，结果可以直接以十六进制写进调用方提供的数组
+ * @Author peter
+ * @Date 2026/10/19 03:10
+ * @Version 1.0
+ */
+public class DigestUtil {
+    /**
+     * SHA256 ：SHA-256 的算法名
+     * BUFFER_SIZE ：读 InputStream 时的缓冲区大小
+     */
+    public static final String SHA256 = "SHA-256";
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<Map<String, MessageDigest>> DIGESTS = ThreadLocal.withInitial(() -> new HashMap<>(4));
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private DigestUtil() {
+    }
+
+    /**
+     * 摘要
+     *
+     * @param algorithm 算法，如 SHA-256
+     * @param data      数据
+     * @return 摘要
+     */
+    public static byte[] digest(String algorithm, byte[] data) {
+        return cached(algorithm).digest(data);
+    }
+
+    /**
+     * 摘要 ByteBuffer 中剩余的数据，读完后 position 移到 limit；结果写入调用方提供的数组
+     *
+     * @param algorithm 算法
+     * @param data      数据
+     * @param dst       目标数组
+     * @param dstOff    目标起始下标
+     * @return 摘要的字节数
+     */
+    public static int digest(String algorithm, ByteBuffer data, byte[] dst, int dstOff) {
+        MessageDigest digest = cached(algorithm);
+        digest.update(data);
+        try {
+            return digest.digest(dst, dstOff, dst.length - dstOff);
+        } catch (DigestException e) {
+            digest.reset();
+            throw new IllegalArgumentException(String.format(
+                    "digest buffer too small: %d bytes left, %d needed", dst.length - dstOff, digest.getDigestLength()), e);
+        }
+    }
+
+    /**
+     * 摘要 InputStream 中的全部数据，读到结尾为止，不会关闭流
+     *
+     * @param algorithm 算法
+     * @param in        输入
+     * @return 摘要
+     * @throws IOException 读取失败
+     */
+    public static byte[] digest(String algorithm, InputStream in) throws IOException {
+        MessageDigest digest = cached(algorithm);
+        byte[] buffer = BUFFERS.get();
+        try {
+            for (int n; (n = in.read(buffer)) >= 0; ) {
+                digest.update(buffer, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            digest.reset();
+            throw e;
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 摘要并以小写十六进制写入调用方提供的字符数组，除了 MessageDigest 自己的结果数组外不再分配内存
+     *
+     * @param algorithm 算法
+     * @param data      数据
+     * @param dst       目标数组，需要摘要长度 * 2 个位置
+     * @param dstOff    目标起始下标
+     * @return 写入后的下一个下标
+     */
+    public static int digestHex(String algorithm, byte[] data, char[] dst, int dstOff) {
+        byte[] digest = digest(algorithm, data);
+        return HexUtils.encode(digest, 0, digest.length, dst, dstOff, true);
+    }
+
+    /**
+     * SHA-256 的小写十六进制
+     *
+     * @param data 字符串，按UTF-8编码
+     * @return 64个字符的十六进制
+     */
+    public static String sha256Hex(String data) {
+        char[] hex = new char[64];
+        digestHex(SHA256, data.getBytes(StandardCharsets.UTF_8), hex, 0);
+        return new String(hex);
+    }
+
+    /**
+     * 取当前线程缓存的 MessageDigest，返回前已经 reset；实例是线程私有的，不能交给外部持有
+     *
+     * @param algorithm 算法
+     * @return MessageDigest
+     */
+    private static MessageDigest cached(String algorithm) {
+        Map<String, MessageDigest> digests = DIGESTS.get();
+        MessageDigest digest = digests.get(algorithm);
+        if (digest == null) {
+            try {
+                digest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException(String.format("unsupported digest algorithm: %s", algorithm), e);
+            }
+            digests.put(algorithm, digest);
+        } else {
+            digest.reset();
+        }
+        return digest;
+    }
+}
@@ -0,0 +1,287 @@
+package com.peter.common.encryption;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SignatureException;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * @ClassName EcdsaUtil
+ * @Description ECDSA（P-256 / secp256r1，SHA256withECDSA）签名验签，接口和 RsaUtil 的 sign/verify 一致
+ * 同等强度下EC签名比RSA-2048签名快一个数量级，签名值也只有64~72字节
+ * 签名值支持两种编码：JCA默认的DER（ASN.1 SEQUENCE { r, s }）和JWS等使用的P1363（r、s各32字节直接拼接）；
+ * Java 8 的 JCA 不支持 P1363 格式的签名算法，这里手工和DER互转
+ * Signature/KeyFactory 的复用和密钥缓存直接用 RsaCryptoEngine、RsaKeyCache，两者虽然名字带Rsa，实际与算法无关
+ * @Author peter
+ * @Date 2026/10/19 02:45
+ * @Version 1.0
+ */
+public class EcdsaUtil {
+
+    /**
+     * 签名值的编码
+     */
+    public enum SignatureFormat {
+        /**
+         * ASN.1 DER，JCA 的默认格式
+         */
+        DER,
+        /**
+         * r 和 s 定长拼接，JWS(ES256)、WebCrypto 使用
+         */
+        P1363
+    }
+
+    /**
+     * CURVE ：曲线名
+     * ALGORITHM ：签名算法
+     * FIELD_BYTES ：P-256 的 r、s 各自的字节数
+     * KEY_CACHE_SIZE ：公钥、私钥缓存各自的容量
+     */
+    private static final String CURVE = "secp256r1";
+    private static final String ALGORITHM = "SHA256withECDSA";
+    private static final int FIELD_BYTES = 32;
+    private static final int KEY_CACHE_SIZE = 256;
+
+    private static final RsaCryptoEngine ENGINE = new RsaCryptoEngine();
+    private static final RsaKeyCache<PublicKey> PUBLIC_KEYS = new RsaKeyCache<>(KEY_CACHE_SIZE,
+            encoded -> ENGINE.keyFactory("EC").generatePublic(new X509EncodedKeySpec(encoded)));
+    private static final RsaKeyCache<PrivateKey> PRIVATE_KEYS = new RsaKeyCache<>(KEY_CACHE_SIZE,
+            encoded -> ENGINE.keyFactory("EC").generatePrivate(new PKCS8EncodedKeySpec(encoded)));
+
+    private EcdsaUtil() {
+    }
+
+    /**
+     * 生成 P-256 密钥对
+     *
+     * @return 密钥对
+     * @throws GeneralSecurityException 异常
+     */
+    public static KeyPair getKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(CURVE));
+        return generator.generateKeyPair();
+    }
+
+    /**
+     * 获取私钥，解析结果会被缓存
+     *
+     * @param privateKey Base64编码的PKCS#8私钥
+     * @return 私钥
+     * @throws GeneralSecurityException 密钥格式不对
+     */
+    public static PrivateKey getPrivateKey(String privateKey) throws GeneralSecurityException {
+        return PRIVATE_KEYS.get(privateKey);
+    }
+
+    /**
+     * 获取公钥，解析结果会被缓存
+     *
+     * @param publicKey Base64编码的X.509公钥
+     * @return 公钥
+     * @throws GeneralSecurityException 密钥格式不对
+     */
+    public static PublicKey getPublicKey(String publicKey) throws GeneralSecurityException {
+        return PUBLIC_KEYS.get(publicKey);
+    }
+
+    public static RsaKeyCache<PublicKey> getPublicKeyCache() {
+        return PUBLIC_KEYS;
+    }
+
+    public static RsaKeyCache<PrivateKey> getPrivateKeyCache() {
+        return PRIVATE_KEYS;
+    }
+
+    /**
+     * 签名
+     *
+     * @param data       待签名数据，按UTF-8编码
+     * @param privateKey 私钥
+     * @return Base64编码的DER签名
+     * @throws GeneralSecurityException 异常
+     */
+    public static String sign(String data, PrivateKey privateKey) throws GeneralSecurityException {
+        return Base64Util.encodeToString(sign(data.getBytes(StandardCharsets.UTF_8), privateKey, SignatureFormat.DER));
+    }
+
+    /**
+     * 验签
+     *
+     * @param srcData   原始字符串，按UTF-8编码
+     * @param publicKey 公钥
+     * @param sign      sign 生成的Base64编码的DER签名
+     * @return 是否验签通过
+     * @throws GeneralSecurityException 签名格式不对时抛 SignatureException
+     */
+    public static boolean verify(String srcData, PublicKey publicKey, String sign) throws GeneralSecurityException {
+        return verify(srcData.getBytes(StandardCharsets.UTF_8), publicKey, Base64Util.decode(sign), SignatureFormat.DER);
+    }
+
+    /**
+     * 签名字节数组
+     *
+     * @param data       待签名数据
+     * @param privateKey 私钥
+     * @param format     签名值的编码
+     * @return 签名值
+     * @throws GeneralSecurityException 异常
+     */
+    public static byte[] sign(byte[] data, PrivateKey privateKey, SignatureFormat format) throws GeneralSecurityException {
+        byte[] der = ENGINE.sign(ALGORITHM, privateKey, data);
+        return format == SignatureFormat.DER ? der : derToP1363(der, FIELD_BYTES);
+    }
+
+    /**
+     * 验签字节数组
+     *
+     * @param data      原始数据
+     * @param publicKey 公钥
+     * @param sign      签名值
+     * @param format    签名值的编码
+     * @return 是否验签通过
+     * @throws GeneralSecurityException 签名格式不对时抛 SignatureException，P1363 签名长度必须正好是64字节
+     */
+    public static boolean verify(byte[] data, PublicKey publicKey, byte[] sign, SignatureFormat format)
+            throws GeneralSecurityException {
+        byte[] der;
+        if (format == SignatureFormat.DER) {
+            der = sign;
+        } else {
+            if (sign.length != FIELD_BYTES << 1) {
+                throw new SignatureException(String.format(
+                        "P1363 signature must be %d bytes: %d", FIELD_BYTES << 1, sign.length));
+            }
+            try {
+                der = p1363ToDer(sign);
+            } catch (IllegalArgumentException e) {
+                throw new SignatureException(e.getMessage(), e);
+            }
+        }
+        return ENGINE.verify(ALGORITHM, publicKey, data, der);
+    }
+
+    /**
+     * DER 签名转 P1363：取出 r、s，去掉符号位补的0，再左侧补0到定长
+     *
+     * @param der        DER编码的签名
+     * @param fieldBytes r、s 各自的字节数，P-256 为32
+     * @return r || s
+     */
+    public static byte[] derToP1363(byte[] der, int fieldBytes) {
+        int offset = 0;
+        if (der.length < 8 || der[offset++] != 0x30) {
+            throw new IllegalArgumentException("invalid DER signature: not a SEQUENCE");
+        }
+        int length = der[offset++] & 0xFF;
+        if (length == 0x81) {
+            length = der[offset++] & 0xFF;
+        } else if (length > 0x7F) {
+            throw new IllegalArgumentException("invalid DER signature: unsupported length");
+        }
+        if (offset + length != der.length) {
+            throw new IllegalArgumentException(String.format(
+                    "invalid DER signature: SEQUENCE length %d, actual %d", length, der.length - offset));
+        }
+        byte[] out = new byte[fieldBytes << 1];
+        offset = readInteger(der, offset, out, 0, fieldBytes);
+        offset = readInteger(der, offset, out, fieldBytes, fieldBytes);
+        if (offset != der.length) {
+            throw new IllegalArgumentException("invalid DER signature: trailing data");
+        }
+        return out;
+    }
+
+    /**
+     * P1363 签名转 DER
+     *
+     * @param p1363 r || s，长度为偶数
+     * @return DER编码的签名
+     */
+    public static byte[] p1363ToDer(byte[] p1363) {
+        if (p1363.length == 0 || (p1363.length & 1) != 0) {
+            throw new IllegalArgumentException(
+                    String.format("P1363 signature length must be even and non-zero: %d", p1363.length));
+        }
+        int half = p1363.length >> 1;
+        int rStart = firstSignificant(p1363, 0, half);
+        int sStart = firstSignificant(p1363, half, p1363.length);
+        // 最高位是1时要补一个0，否则会被当成负数
+        int rLength = half - rStart + ((p1363[rStart] & 0x80) != 0 ? 1 : 0);
+        int sLength = p1363.length - sStart + ((p1363[sStart] & 0x80) != 0 ? 1 : 0);
+        int bodyLength = 2 + rLength + 2 + sLength;
+        byte[] der = new byte[(bodyLength > 0x7F ? 3 : 2) + bodyLength];
+        int offset = 0;
+        der[offset++] = 0x30;
+        if (bodyLength > 0x7F) {
+            der[offset++] = (byte) 0x81;
+        }
+        der[offset++] = (byte) bodyLength;
+        offset = writeInteger(p1363, rStart, half, rLength, der, offset);
+        writeInteger(p1363, sStart, p1363.length, sLength, der, offset);
+        return der;
+    }
+
+    /**
+     * 读一个 INTEGER，右对齐写入 out[outOff, outOff + fieldBytes)
+     *
+     * @return INTEGER 之后的下标
+     */
+    private static int readInteger(byte[] der, int offset, byte[] out, int outOff, int fieldBytes) {
+        if (offset + 2 > der.length || der[offset] != 0x02) {
+            throw new IllegalArgumentException("invalid DER signature: expected INTEGER");
+        }
+        int length = der[offset + 1] & 0xFF;
+        offset += 2;
+        if (length == 0 || length > 0x7F || offset + length > der.length) {
+            throw new IllegalArgumentException("invalid DER signature: bad INTEGER length");
+        }
+        if ((der[offset] & 0x80) != 0) {
+            // r、s 都是正数，最高位为1时DER要求前面补0，没补就是负数
+            throw new IllegalArgumentException("invalid DER signature: negative INTEGER");
+        }
+        int end = offset + length;
+        while (offset < end - 1 && der[offset] == 0) {
+            offset++;
+        }
+        int significant = end - offset;
+        if (significant > fieldBytes) {
+            throw new IllegalArgumentException(
+                    String.format("invalid DER signature: INTEGER of %d bytes exceeds %d", significant, fieldBytes));
+        }
+        System.arraycopy(der, offset, out, outOff + fieldBytes - significant, significant);
+        return end;
+    }
+
+    /**
+     * 写一个 INTEGER，value[start, end) 是去掉前导0之后的大端数值
+     *
+     * @return 写入后的下一个下标
+     */
+    private static int writeInteger(byte[] value, int start, int end, int length, byte[] der, int offset) {
+        der[offset++] = 0x02;
+        der[offset++] = (byte) length;
+        if (length > end - start) {
+            der[offset++] = 0;
+        }
+        System.arraycopy(value, start, der, offset, end - start);
+        return offset + end - start;
+    }
+
+    /**
+     * 第一个非0字节的下标，全是0时返回最后一个字节，保证 INTEGER 至少有一个字节
+     */
+    private static int firstSignificant(byte[] value, int start, int end) {
+        while (start < end - 1 && value[start] == 0) {
+            start++;
+        }
+        return start;
+    }
+}
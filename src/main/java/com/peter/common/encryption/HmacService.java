@@ -0,0 +1,216 @@
+package com.peter.common.encryption;
+
+import com.peter.common.bytes.HexUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * @ClassName HmacService
+ * @Description 一个密钥对应一个实例的HMAC计算，内部服务之间的请求签名用它代替RSA签名，快几个数量级
+ * 每个线程各缓存一个已经用本实例密钥初始化好的 Mac，doFinal 之后自动回到初始化后的状态，不需要重复 init
+ * 十六进制和Base64结果可以直接写进调用方提供的数组，中间结果放在线程私有的缓冲区里，不额外分配内存
+ * @Author peter
+ * @Date 2026/10/19 03:20
+ * @Version 1.0
+ */
+public class HmacService {
+    /**
+     * HMAC_SHA256 ：HmacSHA256 的算法名
+     * BUFFER_SIZE ：读 InputStream 时的缓冲区大小
+     */
+    public static final String HMAC_SHA256 = "HmacSHA256";
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * macs ：线程私有的、已经初始化好的 Mac
+     * scratch ：线程私有的结果缓冲区，编码成十六进制/Base64之前先放在这里
+     */
+    private final String algorithm;
+    private final SecretKeySpec key;
+    private final int macLength;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+    private final ThreadLocal<byte[]> scratch;
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    public HmacService(byte[] key) {
+        this(HMAC_SHA256, key);
+    }
+
+    /**
+     * @param algorithm 算法，如 HmacSHA256
+     * @param key       密钥，会被复制
+     */
+    public HmacService(String algorithm, byte[] key) {
+        this.algorithm = algorithm;
+        this.key = new SecretKeySpec(key, algorithm);
+        // 先建一个，算法不存在或者密钥不可用时在构造时就报错
+        Mac mac = newMac();
+        this.macLength = mac.getMacLength();
+        this.macs.set(mac);
+        this.scratch = ThreadLocal.withInitial(() -> new byte[macLength]);
+    }
+
+    /**
+     * 计算HMAC
+     *
+     * @param data 数据
+     * @return HMAC
+     */
+    public byte[] mac(byte[] data) {
+        return macs.get().doFinal(data);
+    }
+
+    /**
+     * 计算 ByteBuffer 中剩余数据的HMAC，读完后 position 移到 limit；结果写入调用方提供的数组
+     *
+     * @param data   数据
+     * @param dst    目标数组，需要 getMacLength 个位置
+     * @param dstOff 目标起始下标
+     * @return 写入后的下一个下标
+     */
+    public int mac(ByteBuffer data, byte[] dst, int dstOff) {
+        Mac mac = macs.get();
+        mac.update(data);
+        return doFinal(mac, dst, dstOff);
+    }
+
+    /**
+     * 计算 InputStream 中全部数据的HMAC，读到结尾为止，不会关闭流
+     *
+     * @param in 输入
+     * @return HMAC
+     * @throws IOException 读取失败
+     */
+    public byte[] mac(InputStream in) throws IOException {
+        Mac mac = macs.get();
+        byte[] buffer = buffers.get();
+        try {
+            for (int n; (n = in.read(buffer)) >= 0; ) {
+                mac.update(buffer, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            mac.reset();
+            throw e;
+        }
+        return mac.doFinal();
+    }
+
+    /**
+     * 计算HMAC，以小写十六进制写入调用方提供的字符数组
+     *
+     * @param data   数据
+     * @param dst    目标数组，需要 getMacLength * 2 个位置
+     * @param dstOff 目标起始下标
+     * @return 写入后的下一个下标
+     */
+    public int macHex(byte[] data, char[] dst, int dstOff) {
+        Mac mac = macs.get();
+        mac.update(data);
+        byte[] raw = scratch.get();
+        doFinal(mac, raw, 0);
+        return HexUtils.encode(raw, 0, macLength, dst, dstOff, true);
+    }
+
+    /**
+     * 计算HMAC，Base64编码后写入调用方提供的数组
+     *
+     * @param data     数据
+     * @param dst      目标数组，长度用 Base64Util.encodedLength(getMacLength(), alphabet) 算
+     * @param dstOff   目标起始下标，为0时直接写入，否则 Base64Util 要经过一个临时数组
+     * @param alphabet 字母表
+     * @return 写入后的下一个下标
+     */
+    public int macBase64(byte[] data, byte[] dst, int dstOff, Base64Util.Alphabet alphabet) {
+        Mac mac = macs.get();
+        mac.update(data);
+        byte[] raw = scratch.get();
+        doFinal(mac, raw, 0);
+        return Base64Util.encode(raw, 0, macLength, dst, dstOff, alphabet);
+    }
+
+    /**
+     * 小写十六进制的HMAC
+     *
+     * @param data 字符串，按UTF-8编码
+     */
+    public String macHex(String data) {
+        char[] hex = new char[macLength << 1];
+        macHex(data.getBytes(StandardCharsets.UTF_8), hex, 0);
+        return new String(hex);
+    }
+
+    /**
+     * 标准Base64编码的HMAC
+     *
+     * @param data 字符串，按UTF-8编码
+     */
+    public String macBase64(String data) {
+        byte[] base64 = new byte[Base64Util.encodedLength(macLength, Base64Util.Alphabet.STANDARD)];
+        macBase64(data.getBytes(StandardCharsets.UTF_8), base64, 0, Base64Util.Alphabet.STANDARD);
+        return new String(base64, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 校验HMAC，比较时间和内容无关，不会通过响应时间泄露匹配了多少字节
+     *
+     * @param data     数据
+     * @param expected 对方给出的HMAC
+     * @return 是否一致
+     */
+    public boolean verify(byte[] data, byte[] expected) {
+        if (expected.length != macLength) {
+            return false;
+        }
+        Mac mac = macs.get();
+        mac.update(data);
+        byte[] raw = scratch.get();
+        doFinal(mac, raw, 0);
+        return MessageDigest.isEqual(raw, expected);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getMacLength() {
+        return macLength;
+    }
+
+    /**
+     * 释放当前线程缓存的 Mac，线程池里的线程不再使用本实例时调用，避免一直持有密钥
+     */
+    public void release() {
+        macs.remove();
+        scratch.remove();
+        buffers.remove();
+    }
+
+    private int doFinal(Mac mac, byte[] dst, int dstOff) {
+        try {
+            mac.doFinal(dst, dstOff);
+            return dstOff + macLength;
+        } catch (ShortBufferException e) {
+            mac.reset();
+            throw new IllegalArgumentException(String.format(
+                    "mac buffer too small: %d bytes left, %d needed", dst.length - dstOff, macLength), e);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(algorithm);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(String.format("unsupported mac algorithm or key: %s", algorithm), e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.peter.common.encryption;
+
+import java.io.Closeable;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @ClassName RsaBatchSigner
+ * @Description 批量签名和验签：条数达到阈值时拆到有界的 ForkJoinPool 上并行处理，每个工作线程通过 RsaCryptoEngine 复用自己的 Signature
+ * 验签结果用 BitSet 返回，第 i 位为 true 表示第 i 条消息验签通过
+ * @Author peter
+ * @Date 2026/10/19 01:30
+ * @Version 1.0
+ */
+public class RsaBatchSigner implements Closeable {
+    /**
+     * DEFAULT_PARALLEL_THRESHOLD ：默认达到多少条才并行
+     * TASKS_PER_THREAD ：每个线程大约分到几个子任务
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 16;
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final RsaCryptoEngine engine = new RsaCryptoEngine();
+
+    public RsaBatchSigner() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param parallelism       并行线程数
+     * @param parallelThreshold 条数达到这个值才并行，小于它时在调用线程上逐条处理
+     */
+    public RsaBatchSigner(int parallelism, int parallelThreshold) {
+        if (parallelism <= 0 || parallelThreshold <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "parallelism and threshold must be positive: %d, %d", parallelism, parallelThreshold));
+        }
+        this.parallelThreshold = parallelThreshold;
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("rsa-batch-sign-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 批量验签；签名格式不对、密钥不可用等异常都按验签不通过处理，不会中断整批
+     *
+     * @param messages 待验签的消息
+     * @return 第 i 位表示第 i 条消息是否验签通过
+     */
+    public BitSet verifyAll(List<SignedMessage> messages) {
+        boolean[] results = new boolean[messages.size()];
+        try {
+            run(messages.size(), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    results[i] = verify(messages.get(i));
+                }
+            });
+        } catch (GeneralSecurityException e) {
+            // verify 已经把异常都转成了false，不会走到这里
+            throw new IllegalStateException(e);
+        }
+        BitSet verified = new BitSet(results.length);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i]) {
+                verified.set(i);
+            }
+        }
+        return verified;
+    }
+
+    /**
+     * 异步批量验签，在本实例的线程池上执行
+     */
+    public CompletableFuture<BitSet> verifyAllAsync(List<SignedMessage> messages) {
+        return CompletableFuture.supplyAsync(() -> verifyAll(messages), pool);
+    }
+
+    /**
+     * 用同一个私钥批量签名
+     *
+     * @param algorithm  签名算法，如 SHA256withRSA
+     * @param privateKey 私钥
+     * @param payloads   待签名数据
+     * @return 和 payloads 一一对应的签名值
+     * @throws GeneralSecurityException 任意一条签名失败时抛出
+     */
+    public List<byte[]> signAll(String algorithm, PrivateKey privateKey, List<byte[]> payloads)
+            throws GeneralSecurityException {
+        byte[][] signatures = new byte[payloads.size()][];
+        run(payloads.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                signatures[i] = engine.sign(algorithm, privateKey, payloads.get(i));
+            }
+        });
+        List<byte[]> result = new ArrayList<>(signatures.length);
+        for (byte[] signature : signatures) {
+            result.add(signature);
+        }
+        return result;
+    }
+
+    /**
+     * 异步批量签名，在本实例的线程池上执行，失败时 future 以对应的 GeneralSecurityException 异常结束
+     */
+    public CompletableFuture<List<byte[]>> signAllAsync(String algorithm, PrivateKey privateKey, List<byte[]> payloads) {
+        CompletableFuture<List<byte[]>> future = new CompletableFuture<>();
+        pool.execute(() -> {
+            try {
+                future.complete(signAll(algorithm, privateKey, payloads));
+            } catch (GeneralSecurityException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private boolean verify(SignedMessage message) {
+        try {
+            return engine.verify(message.getAlgorithm(), message.getPublicKey(), message.getPayload(), message.getSignature());
+        } catch (GeneralSecurityException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 条数不够时直接在调用线程上执行，否则拆成子任务交给线程池；在本线程池的工作线程里调用时 invoke 会直接在当前线程上执行
+     */
+    private void run(int size, RangeAction action) throws GeneralSecurityException {
+        if (size < parallelThreshold || pool.getParallelism() == 1) {
+            action.run(0, size);
+            return;
+        }
+        int leafSize = Math.max(1, size / (pool.getParallelism() * TASKS_PER_THREAD));
+        try {
+            pool.invoke(new RangeTask(action, 0, size, leafSize));
+        } catch (SecurityFailure e) {
+            throw e.getFailure();
+        }
+    }
+
+    private interface RangeAction {
+        void run(int from, int to) throws GeneralSecurityException;
+    }
+
+    /**
+     * 按下标二分拆分，不超过 leafSize 条时直接处理
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 8764522018034651244L;
+
+        private final RangeAction action;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private RangeTask(RangeAction action, int from, int to, int leafSize) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                try {
+                    action.run(from, to);
+                } catch (GeneralSecurityException e) {
+                    throw new SecurityFailure(e);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(action, from, mid, leafSize), new RangeTask(action, mid, to, leafSize));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.peter.common.encryption;
+
+import javax.crypto.Cipher;
+import java.io.Closeable;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @ClassName RsaBlockDecryptor
+ * @Description 分段RSA密文的解密：每段都是独立的RSA运算，段数达到阈值时拆到有界的 ForkJoinPool 上并行解密
+ * 每个工作线程通过 RsaCryptoEngine 用自己的 Cipher；各段的结果按原来的顺序拼接，输出和逐段解密完全相同
+ * @Author peter
+ * @Date 2026/10/19 00:50
+ * @Version 1.0
+ */
+public class RsaBlockDecryptor implements Closeable {
+    /**
+     * DEFAULT_PARALLEL_THRESHOLD ：默认达到多少段才并行，段数少时拆分和线程切换的开销比RSA运算本身还大
+     * TASKS_PER_THREAD ：每个线程大约分到几个子任务，多拆几份让快慢不一的线程能互相窃取
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 32;
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final RsaCryptoEngine engine = new RsaCryptoEngine();
+
+    public RsaBlockDecryptor() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param parallelism       并行线程数
+     * @param parallelThreshold 段数达到这个值才并行，小于它时在调用线程上逐段解密
+     */
+    public RsaBlockDecryptor(int parallelism, int parallelThreshold) {
+        if (parallelism <= 0 || parallelThreshold <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "parallelism and threshold must be positive: %d, %d", parallelism, parallelThreshold));
+        }
+        this.parallelThreshold = parallelThreshold;
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("rsa-block-decrypt-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 解密
+     *
+     * @param privateKey 私钥
+     * @param data       分段密文，除最后一段外每段都是 blockSize 个字节
+     * @param blockSize  每段密文的长度，即密钥的字节数
+     * @return 明文
+     * @throws GeneralSecurityException 私钥不匹配或密文被篡改
+     */
+    public byte[] decrypt(PrivateKey privateKey, byte[] data, int blockSize) throws GeneralSecurityException {
+        int blocks = (data.length + blockSize - 1) / blockSize;
+        byte[][] plain = new byte[blocks][];
+        if (blocks < parallelThreshold || pool.getParallelism() == 1) {
+            decryptBlocks(privateKey, data, blockSize, plain, 0, blocks);
+        } else {
+            int leafBlocks = Math.max(1, blocks / (pool.getParallelism() * TASKS_PER_THREAD));
+            try {
+                pool.invoke(new BlockTask(privateKey, data, blockSize, plain, 0, blocks, leafBlocks));
+            } catch (SecurityFailure e) {
+                throw e.getFailure();
+            }
+        }
+        int length = 0;
+        for (byte[] block : plain) {
+            length += block.length;
+        }
+        byte[] out = new byte[length];
+        int offset = 0;
+        for (byte[] block : plain) {
+            System.arraycopy(block, 0, out, offset, block.length);
+            offset += block.length;
+        }
+        return out;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * 解密 [from, to) 这几段，结果放进 plain 对应的位置；Cipher 出错后丢弃，不把半截状态留给这个线程的下一次调用
+     */
+    private void decryptBlocks(PrivateKey privateKey, byte[] data, int blockSize, byte[][] plain, int from, int to)
+            throws GeneralSecurityException {
+        Cipher cipher = engine.cipher("RSA", Cipher.DECRYPT_MODE, privateKey);
+        try {
+            for (int i = from; i < to; i++) {
+                int offset = i * blockSize;
+                plain[i] = cipher.doFinal(data, offset, Math.min(blockSize, data.length - offset));
+            }
+        } catch (GeneralSecurityException | RuntimeException e) {
+            engine.evictCipher("RSA");
+            throw e;
+        }
+    }
+
+    /**
+     * 按段数二分拆分，段数不超过 leafBlocks 时直接解密
+     */
+    private final class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 7604275973549055180L;
+
+        private final PrivateKey privateKey;
+        private final byte[] data;
+        private final int blockSize;
+        private final byte[][] plain;
+        private final int from;
+        private final int to;
+        private final int leafBlocks;
+
+        private BlockTask(PrivateKey privateKey, byte[] data, int blockSize, byte[][] plain,
+                          int from, int to, int leafBlocks) {
+            this.privateKey = privateKey;
+            this.data = data;
+            this.blockSize = blockSize;
+            this.plain = plain;
+            this.from = from;
+            this.to = to;
+            this.leafBlocks = leafBlocks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafBlocks) {
+                try {
+                    decryptBlocks(privateKey, data, blockSize, plain, from, to);
+                } catch (GeneralSecurityException e) {
+                    throw new SecurityFailure(e);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BlockTask(privateKey, data, blockSize, plain, from, mid, leafBlocks),
+                    new BlockTask(privateKey, data, blockSize, plain, mid, to, leafBlocks));
+        }
+    }
+}
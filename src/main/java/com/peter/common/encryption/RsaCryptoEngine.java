@@ -0,0 +1,213 @@
+package com.peter.common.encryption;
+
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @ClassName RsaCryptoEngine
+ * @Description 复用 Cipher/Signature/KeyFactory 实例的加解密引擎
+ * getInstance 每次都要遍历一遍 Provider 列表并加锁，高频验签时这部分开销很明显；
+ * 这里每个线程按算法各缓存一个实例，算法、密钥（同一个对象）和模式都没变时跳过 init，直接复用上次初始化的状态
+ * Cipher/Signature 在 doFinal/sign/verify 之后会自动回到 init 之后的状态，所以可以连续复用；
+ * 中途抛异常的实例状态不确定，会被丢弃，下次重新创建
+ * 引擎本身与算法无关，EcdsaUtil 也用它做EC的签名验签和密钥解析
+ * @Author peter
+ * @Date 2026/10/18 22:40
+ * @Version 1.0
+ */
+public class RsaCryptoEngine {
+    /**
+     * provider ：指定的 Provider 名字，为null时按JCA默认顺序查找
+     * slots ：线程私有的实例缓存
+     */
+    private final String provider;
+    private final ThreadLocal<Slots> slots = ThreadLocal.withInitial(Slots::new);
+
+    public RsaCryptoEngine() {
+        this(null);
+    }
+
+    public RsaCryptoEngine(String provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * 取一个已经按 mode/key 初始化好的 Cipher，只能在当前线程内使用，不要跨线程传递
+     *
+     * @param transformation 如 RSA、RSA/ECB/OAEPWithSHA-256AndMGF1Padding
+     * @param mode           Cipher.ENCRYPT_MODE 等
+     * @param key            密钥
+     * @param params         算法参数，没有时传null
+     * @return 初始化好的 Cipher
+     * @throws GeneralSecurityException 算法不存在或密钥不可用
+     */
+    public Cipher cipher(String transformation, int mode, Key key, AlgorithmParameterSpec params)
+            throws GeneralSecurityException {
+        Map<String, CipherSlot> ciphers = slots.get().ciphers;
+        CipherSlot slot = ciphers.get(transformation);
+        if (slot == null) {
+            slot = new CipherSlot(provider == null
+                    ? Cipher.getInstance(transformation) : Cipher.getInstance(transformation, provider));
+            ciphers.put(transformation, slot);
+        }
+        if (slot.key != key || slot.mode != mode || slot.params != params) {
+            // init 失败时实例状态不确定，先清掉记录，避免下次被当作已初始化的实例复用
+            slot.key = null;
+            if (params == null) {
+                slot.cipher.init(mode, key);
+            } else {
+                slot.cipher.init(mode, key, params);
+            }
+            slot.key = key;
+            slot.mode = mode;
+            slot.params = params;
+        }
+        return slot.cipher;
+    }
+
+    public Cipher cipher(String transformation, int mode, Key key) throws GeneralSecurityException {
+        return cipher(transformation, mode, key, null);
+    }
+
+    /**
+     * 一次性加密或解密
+     */
+    public byte[] doFinal(String transformation, int mode, Key key, byte[] input, int off, int len)
+            throws GeneralSecurityException {
+        Cipher cipher = cipher(transformation, mode, key);
+        try {
+            return cipher.doFinal(input, off, len);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            evictCipher(transformation);
+            throw e;
+        }
+    }
+
+    /**
+     * 签名
+     *
+     * @param algorithm 如 Sha1WithRSA
+     * @return 签名值
+     */
+    public byte[] sign(String algorithm, PrivateKey key, byte[] data) throws GeneralSecurityException {
+        Signature signature = signature(algorithm, key, Cipher.ENCRYPT_MODE);
+        try {
+            signature.update(data);
+            return signature.sign();
+        } catch (GeneralSecurityException | RuntimeException e) {
+            slots.get().signatures.remove(algorithm);
+            throw e;
+        }
+    }
+
+    /**
+     * 验签
+     *
+     * @return 是否验签通过
+     * @throws GeneralSecurityException 签名格式不对时抛 SignatureException，和直接用 Signature 一致
+     */
+    public boolean verify(String algorithm, PublicKey key, byte[] data, byte[] sign) throws GeneralSecurityException {
+        return verify(algorithm, key, data, 0, data.length, sign);
+    }
+
+    public boolean verify(String algorithm, PublicKey key, byte[] data, int off, int len, byte[] sign)
+            throws GeneralSecurityException {
+        Signature signature = signature(algorithm, key, Cipher.DECRYPT_MODE);
+        try {
+            signature.update(data, off, len);
+            return signature.verify(sign);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            slots.get().signatures.remove(algorithm);
+            throw e;
+        }
+    }
+
+    /**
+     * 取当前线程缓存的 KeyFactory
+     *
+     * @param algorithm 如 RSA
+     */
+    public KeyFactory keyFactory(String algorithm) throws GeneralSecurityException {
+        Map<String, KeyFactory> keyFactories = slots.get().keyFactories;
+        KeyFactory keyFactory = keyFactories.get(algorithm);
+        if (keyFactory == null) {
+            keyFactory = provider == null
+                    ? KeyFactory.getInstance(algorithm) : KeyFactory.getInstance(algorithm, provider);
+            keyFactories.put(algorithm, keyFactory);
+        }
+        return keyFactory;
+    }
+
+    /**
+     * 丢弃当前线程缓存的 Cipher，调用方自己拿 Cipher 做分段运算出错时调用
+     */
+    public void evictCipher(String transformation) {
+        slots.get().ciphers.remove(transformation);
+    }
+
+    /**
+     * 释放当前线程的全部缓存，线程池里的线程不再使用本引擎时调用，避免一直持有密钥
+     */
+    public void release() {
+        slots.remove();
+    }
+
+    /**
+     * 签名和验签共用一个槽位，mode 用 Cipher 的加密/解密常量区分签名/验签
+     */
+    private Signature signature(String algorithm, Key key, int mode) throws GeneralSecurityException {
+        Map<String, SignatureSlot> signatures = slots.get().signatures;
+        SignatureSlot slot = signatures.get(algorithm);
+        if (slot == null) {
+            slot = new SignatureSlot(provider == null
+                    ? Signature.getInstance(algorithm) : Signature.getInstance(algorithm, provider));
+            signatures.put(algorithm, slot);
+        }
+        if (slot.key != key || slot.mode != mode) {
+            slot.key = null;
+            if (mode == Cipher.ENCRYPT_MODE) {
+                slot.signature.initSign((PrivateKey) key);
+            } else {
+                slot.signature.initVerify((PublicKey) key);
+            }
+            slot.key = key;
+            slot.mode = mode;
+        }
+        return slot.signature;
+    }
+
+    private static final class Slots {
+        private final Map<String, CipherSlot> ciphers = new HashMap<>(4);
+        private final Map<String, SignatureSlot> signatures = new HashMap<>(4);
+        private final Map<String, KeyFactory> keyFactories = new HashMap<>(4);
+    }
+
+    private static final class CipherSlot {
+        private final Cipher cipher;
+        private Key key;
+        private int mode;
+        private AlgorithmParameterSpec params;
+
+        private CipherSlot(Cipher cipher) {
+            this.cipher = cipher;
+        }
+    }
+
+    private static final class SignatureSlot {
+        private final Signature signature;
+        private Key key;
+        private int mode;
+
+        private SignatureSlot(Signature signature) {
+            this.signature = signature;
+        }
+    }
+}
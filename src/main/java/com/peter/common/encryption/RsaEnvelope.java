@@ -0,0 +1,280 @@
+package com.peter.common.encryption;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.MGF1ParameterSpec;
+import java.util.Arrays;
+
+/**
+ * @ClassName RsaEnvelope
+ * @Description RSA + AES-GCM 数字信封：随机生成 AES-256 数据密钥加密正文，只用 RSA-OAEP 加密这个数据密钥
+ * 无论正文多大都只做一次RSA运算，密文只比明文多一个固定长度的头
+ * 格式（多字节整数都是大端）：
+ * | 魔数 'R' 'E' (2) | 版本 1 (1) | 包装密钥长度 (2) | RSA-OAEP包装的数据密钥 | IV (12) | AES-GCM密文 + 16字节认证标签 |
+ * 魔数到包装密钥为止的整个头都作为GCM的附加认证数据，改动头部任何一个字节都会解密失败
+ * 大文件使用分帧的版本 2（见 RsaEnvelopeOutputStream），头之后是一串固定大小的帧，每帧单独做GCM认证，内存占用只和帧大小有关：
+ * | 魔数 'R' 'E' (2) | 版本 2 (1) | 包装密钥长度 (2) | 包装的数据密钥 | nonce前缀 (7) | 帧明文大小 (4) | 帧 0 | 帧 1 | ... |
+ * 每帧是 AES-GCM密文 + 16字节标签，除最后一帧外明文都正好是帧大小；
+ * 第 i 帧的 nonce 是 nonce前缀 + i (4) + 是否最后一帧 (1)，附加认证数据是整个头，
+ * 所以帧被调换顺序、截掉尾部帧或者拼接别的流的帧都会认证失败
+ * @Author peter
+ * @Date 2026/10/18 23:30
+ * @Version 1.0
+ */
+public class RsaEnvelope {
+    /**
+     * MAGIC_0/MAGIC_1 ：魔数，用于和只有RSA分段密文的旧格式区分
+     * VERSION ：格式版本
+     * PREFIX_LENGTH ：魔数 + 版本 + 包装密钥长度
+     * DATA_KEY_LENGTH ：AES-256 数据密钥长度
+     * IV_LENGTH ：GCM推荐的12字节IV
+     * TAG_BITS ：GCM认证标签位数
+     */
+    static final byte MAGIC_0 = 'R';
+    static final byte MAGIC_1 = 'E';
+    public static final byte VERSION = 1;
+    public static final byte STREAM_VERSION = 2;
+    static final int PREFIX_LENGTH = 5;
+    static final int DATA_KEY_LENGTH = 32;
+    static final int IV_LENGTH = 12;
+    static final int TAG_BITS = 128;
+    static final int TAG_LENGTH = TAG_BITS / 8;
+
+    /**
+     * NONCE_PREFIX_LENGTH ：分帧格式里随机的 nonce 前缀长度
+     * DEFAULT_FRAME_SIZE ：默认帧明文大小
+     * MAX_FRAME_SIZE ：帧大小上限，帧大小是从密文头里读出来的，要限制住解密时申请的缓冲区
+     */
+    static final int NONCE_PREFIX_LENGTH = 7;
+    public static final int DEFAULT_FRAME_SIZE = 64 * 1024;
+    public static final int MAX_FRAME_SIZE = 8 * 1024 * 1024;
+
+    static final String WRAP_TRANSFORMATION = "RSA/ECB/OAEPPadding";
+    static final String DATA_TRANSFORMATION = "AES/GCM/NoPadding";
+    /**
+     * OAEP 的摘要和 MGF1 的摘要都指定为 SHA-256；JCE 默认的 OAEPPadding 用的是 SHA-1，不同 Provider 之间也不一致，所以显式给出
+     * 用同一个常量对象，RsaCryptoEngine 才能在密钥不变时跳过 init
+     */
+    static final OAEPParameterSpec OAEP_SHA256 = new OAEPParameterSpec(
+            "SHA-256", "MGF1", MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final RsaCryptoEngine ENGINE = new RsaCryptoEngine();
+
+    private RsaEnvelope() {
+    }
+
+    /**
+     * 加密
+     *
+     * @param publicKey 接收方公钥
+     * @param plaintext 明文
+     * @return 信封
+     * @throws GeneralSecurityException 密钥不可用
+     */
+    public static byte[] seal(PublicKey publicKey, byte[] plaintext) throws GeneralSecurityException {
+        byte[] dataKey = new byte[DATA_KEY_LENGTH];
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(dataKey);
+        RANDOM.nextBytes(iv);
+        byte[] wrappedKey = wrap(publicKey, dataKey);
+
+        int headerLength = PREFIX_LENGTH + wrappedKey.length;
+        byte[] out = new byte[headerLength + IV_LENGTH + plaintext.length + TAG_LENGTH];
+        writePrefix(out, VERSION, wrappedKey);
+        System.arraycopy(iv, 0, out, headerLength, IV_LENGTH);
+
+        Cipher cipher = dataCipher(Cipher.ENCRYPT_MODE, dataKey, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(out, 0, headerLength);
+        cipher.doFinal(plaintext, 0, plaintext.length, out, headerLength + IV_LENGTH);
+        return out;
+    }
+
+    /**
+     * 解密
+     *
+     * @param privateKey 接收方私钥
+     * @param envelope   seal 生成的信封
+     * @return 明文
+     * @throws GeneralSecurityException 私钥不匹配或密文被篡改（BadPaddingException/AEADBadTagException）
+     */
+    public static byte[] open(PrivateKey privateKey, byte[] envelope) throws GeneralSecurityException {
+        if (!isEnvelope(envelope)) {
+            throw new IllegalArgumentException("not an rsa envelope");
+        }
+        int wrappedLength = (envelope[3] & 0xFF) << 8 | envelope[4] & 0xFF;
+        int headerLength = PREFIX_LENGTH + wrappedLength;
+        int bodyOffset = headerLength + IV_LENGTH;
+        if (envelope.length < bodyOffset + TAG_LENGTH) {
+            throw new IllegalArgumentException(String.format(
+                    "rsa envelope truncated: %d bytes, header needs %d", envelope.length, bodyOffset + TAG_LENGTH));
+        }
+
+        byte[] dataKey = unwrap(privateKey, envelope, PREFIX_LENGTH, wrappedLength);
+        Cipher cipher = dataCipher(Cipher.DECRYPT_MODE, dataKey,
+                new GCMParameterSpec(TAG_BITS, envelope, headerLength, IV_LENGTH));
+        cipher.updateAAD(envelope, 0, headerLength);
+        return cipher.doFinal(envelope, bodyOffset, envelope.length - bodyOffset);
+    }
+
+    /**
+     * 只检查魔数和版本；旧格式的RSA密文有极小概率也满足，这时 open 会因为解不开数据密钥而失败
+     *
+     * @param data 密文
+     * @return 是否是本格式的信封
+     */
+    public static boolean isEnvelope(byte[] data) {
+        return data.length >= PREFIX_LENGTH && data[0] == MAGIC_0 && data[1] == MAGIC_1 && data[2] == VERSION;
+    }
+
+    /**
+     * 新建分帧格式的头：生成数据密钥和 nonce 前缀，用公钥包装数据密钥
+     *
+     * @param frameSize 帧明文大小
+     */
+    static StreamHeader newStreamHeader(PublicKey publicKey, int frameSize) throws GeneralSecurityException {
+        checkFrameSize(frameSize);
+        byte[] dataKey = new byte[DATA_KEY_LENGTH];
+        RANDOM.nextBytes(dataKey);
+        byte[] wrappedKey = wrap(publicKey, dataKey);
+        byte[] header = new byte[PREFIX_LENGTH + wrappedKey.length + NONCE_PREFIX_LENGTH + 4];
+        writePrefix(header, STREAM_VERSION, wrappedKey);
+        int offset = PREFIX_LENGTH + wrappedKey.length;
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        RANDOM.nextBytes(noncePrefix);
+        System.arraycopy(noncePrefix, 0, header, offset, NONCE_PREFIX_LENGTH);
+        offset += NONCE_PREFIX_LENGTH;
+        header[offset] = (byte) (frameSize >>> 24);
+        header[offset + 1] = (byte) (frameSize >>> 16);
+        header[offset + 2] = (byte) (frameSize >>> 8);
+        header[offset + 3] = (byte) frameSize;
+        return new StreamHeader(header, new SecretKeySpec(dataKey, "AES"), noncePrefix, frameSize);
+    }
+
+    /**
+     * 根据头的前5个字节算出分帧格式整个头的长度
+     *
+     * @param prefix 魔数、版本和包装密钥长度
+     * @return 整个头的长度
+     */
+    static int streamHeaderLength(byte[] prefix) {
+        if (prefix[0] != MAGIC_0 || prefix[1] != MAGIC_1 || prefix[2] != STREAM_VERSION) {
+            throw new IllegalArgumentException("not an rsa envelope stream");
+        }
+        return PREFIX_LENGTH + ((prefix[3] & 0xFF) << 8 | prefix[4] & 0xFF) + NONCE_PREFIX_LENGTH + 4;
+    }
+
+    /**
+     * 解析分帧格式的头并解开数据密钥
+     *
+     * @param header 完整的头，长度由 streamHeaderLength 给出
+     */
+    static StreamHeader openStreamHeader(PrivateKey privateKey, byte[] header) throws GeneralSecurityException {
+        int wrappedLength = streamHeaderLength(header) - PREFIX_LENGTH - NONCE_PREFIX_LENGTH - 4;
+        int offset = PREFIX_LENGTH + wrappedLength;
+        byte[] noncePrefix = Arrays.copyOfRange(header, offset, offset + NONCE_PREFIX_LENGTH);
+        offset += NONCE_PREFIX_LENGTH;
+        int frameSize = (header[offset] & 0xFF) << 24 | (header[offset + 1] & 0xFF) << 16
+                | (header[offset + 2] & 0xFF) << 8 | header[offset + 3] & 0xFF;
+        checkFrameSize(frameSize);
+        byte[] dataKey = unwrap(privateKey, header, PREFIX_LENGTH, wrappedLength);
+        return new StreamHeader(header, new SecretKeySpec(dataKey, "AES"), noncePrefix, frameSize);
+    }
+
+    private static void checkFrameSize(int frameSize) {
+        if (frameSize <= 0 || frameSize > MAX_FRAME_SIZE) {
+            throw new IllegalArgumentException(
+                    String.format("frame size must be between 1 and %d: %d", MAX_FRAME_SIZE, frameSize));
+        }
+    }
+
+    private static void writePrefix(byte[] out, byte version, byte[] wrappedKey) {
+        out[0] = MAGIC_0;
+        out[1] = MAGIC_1;
+        out[2] = version;
+        out[3] = (byte) (wrappedKey.length >>> 8);
+        out[4] = (byte) wrappedKey.length;
+        System.arraycopy(wrappedKey, 0, out, PREFIX_LENGTH, wrappedKey.length);
+    }
+
+    /**
+     * 数据密钥每条消息都不一样，缓存的 Cipher 每次都要重新 init，复用没有好处，
+     * 还会让线程的缓存槽一直持有上一条消息的密钥，所以 AES-GCM 每次新建
+     * 不清零数据密钥数组：SecretKeySpec 已经复制了一份，Java 8 的 SecretKeySpec 也不支持 destroy
+     */
+    private static Cipher dataCipher(int mode, byte[] dataKey, GCMParameterSpec spec) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(DATA_TRANSFORMATION);
+        cipher.init(mode, new SecretKeySpec(dataKey, "AES"), spec);
+        return cipher;
+    }
+
+    private static byte[] wrap(PublicKey publicKey, byte[] dataKey) throws GeneralSecurityException {
+        try {
+            return ENGINE.cipher(WRAP_TRANSFORMATION, Cipher.ENCRYPT_MODE, publicKey, OAEP_SHA256).doFinal(dataKey);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            ENGINE.evictCipher(WRAP_TRANSFORMATION);
+            throw e;
+        }
+    }
+
+    private static byte[] unwrap(PrivateKey privateKey, byte[] src, int off, int len) throws GeneralSecurityException {
+        try {
+            return ENGINE.cipher(WRAP_TRANSFORMATION, Cipher.DECRYPT_MODE, privateKey, OAEP_SHA256).doFinal(src, off, len);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            ENGINE.evictCipher(WRAP_TRANSFORMATION);
+            throw e;
+        }
+    }
+
+    /**
+     * 分帧格式解析后的头，流和通道各自持有一个，用自己的 Cipher 逐帧加解密
+     */
+    static final class StreamHeader {
+        /**
+         * header ：头的原始字节，也是每一帧的附加认证数据
+         * nonce ：当前帧的 nonce，前7个字节固定，后面每帧改写
+         */
+        private final byte[] header;
+        private final SecretKeySpec key;
+        private final byte[] nonce = new byte[IV_LENGTH];
+        private final int frameSize;
+
+        private StreamHeader(byte[] header, SecretKeySpec key, byte[] noncePrefix, int frameSize) {
+            this.header = header;
+            this.key = key;
+            this.frameSize = frameSize;
+            System.arraycopy(noncePrefix, 0, nonce, 0, NONCE_PREFIX_LENGTH);
+        }
+
+        byte[] bytes() {
+            return header;
+        }
+
+        int frameSize() {
+            return frameSize;
+        }
+
+        /**
+         * 按帧序号和是否最后一帧初始化 Cipher，之后对整帧调用一次 doFinal 即可
+         */
+        void initFrame(Cipher cipher, int mode, long index, boolean last) throws GeneralSecurityException {
+            if (index > 0xFFFFFFFFL) {
+                throw new IllegalStateException(String.format("too many frames: %d", index));
+            }
+            nonce[7] = (byte) (index >>> 24);
+            nonce[8] = (byte) (index >>> 16);
+            nonce[9] = (byte) (index >>> 8);
+            nonce[10] = (byte) index;
+            nonce[11] = (byte) (last ? 1 : 0);
+            cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, nonce));
+            cipher.updateAAD(header);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.peter.common.encryption;
+
+import javax.crypto.Cipher;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * @ClassName RsaEnvelopeChannels
+ * @Description 以 FileChannel 为源的分帧加解密，格式和 RsaEnvelopeOutputStream / RsaEnvelopeInputStream 完全相同，可以互相解密
+ * 帧数据只经过两块可复用的堆外缓冲区，不在堆上复制；文件大小已知，不需要像流那样预读判断最后一帧
+ * 从源文件的当前位置读到文件末尾，读的时候不改变源文件的位置
+ * @Author peter
+ * @Date 2026/10/19 00:30
+ * @Version 1.0
+ */
+public class RsaEnvelopeChannels {
+
+    private RsaEnvelopeChannels() {
+    }
+
+    public static long encrypt(FileChannel source, WritableByteChannel target, PublicKey publicKey)
+            throws IOException, GeneralSecurityException {
+        return encrypt(source, target, publicKey, RsaEnvelope.DEFAULT_FRAME_SIZE);
+    }
+
+    /**
+     * 加密
+     *
+     * @param source    明文文件
+     * @param target    密文输出
+     * @param publicKey 接收方公钥
+     * @param frameSize 帧明文大小
+     * @return 加密的明文字节数
+     */
+    public static long encrypt(FileChannel source, WritableByteChannel target, PublicKey publicKey, int frameSize)
+            throws IOException, GeneralSecurityException {
+        RsaEnvelope.StreamHeader header = RsaEnvelope.newStreamHeader(publicKey, frameSize);
+        Cipher cipher = Cipher.getInstance(RsaEnvelope.DATA_TRANSFORMATION);
+        writeFully(target, ByteBuffer.wrap(header.bytes()));
+
+        long start = source.position();
+        long length = Math.max(0L, source.size() - start);
+        // 空文件也要写出一个带结束标记的空帧
+        long frames = Math.max(1L, (length + frameSize - 1) / frameSize);
+        ByteBuffer plain = ByteBuffer.allocateDirect(frameSize);
+        ByteBuffer sealed = ByteBuffer.allocateDirect(frameSize + RsaEnvelope.TAG_LENGTH);
+        for (long index = 0; index < frames; index++) {
+            long offset = index * frameSize;
+            plain.clear().limit((int) Math.min(frameSize, length - offset));
+            readFully(source, plain, start + offset);
+            plain.flip();
+            sealed.clear();
+            header.initFrame(cipher, Cipher.ENCRYPT_MODE, index, index == frames - 1);
+            cipher.doFinal(plain, sealed);
+            sealed.flip();
+            writeFully(target, sealed);
+        }
+        return length;
+    }
+
+    /**
+     * 解密
+     *
+     * @param source     密文文件
+     * @param target     明文输出
+     * @param privateKey 接收方私钥
+     * @return 解密出的明文字节数
+     * @throws IOException 密文被截断、篡改或者调换了帧的顺序
+     */
+    public static long decrypt(FileChannel source, WritableByteChannel target, PrivateKey privateKey)
+            throws IOException, GeneralSecurityException {
+        long position = source.position();
+        long end = source.size();
+        ByteBuffer prefix = ByteBuffer.allocate(RsaEnvelope.PREFIX_LENGTH);
+        readFully(source, prefix, position);
+        byte[] bytes = new byte[RsaEnvelope.streamHeaderLength(prefix.array())];
+        ByteBuffer headerBuffer = ByteBuffer.wrap(bytes);
+        readFully(source, headerBuffer, position);
+        position += bytes.length;
+        RsaEnvelope.StreamHeader header = RsaEnvelope.openStreamHeader(privateKey, bytes);
+        Cipher cipher = Cipher.getInstance(RsaEnvelope.DATA_TRANSFORMATION);
+
+        int sealedSize = header.frameSize() + RsaEnvelope.TAG_LENGTH;
+        ByteBuffer sealed = ByteBuffer.allocateDirect(sealedSize);
+        ByteBuffer plain = ByteBuffer.allocateDirect(header.frameSize());
+        long total = 0;
+        long index = 0;
+        boolean last;
+        do {
+            int frameLength = (int) Math.min(sealedSize, end - position);
+            if (frameLength < RsaEnvelope.TAG_LENGTH) {
+                throw new EOFException(String.format("rsa envelope stream truncated in frame %d", index));
+            }
+            last = position + frameLength == end;
+            sealed.clear().limit(frameLength);
+            readFully(source, sealed, position);
+            sealed.flip();
+            plain.clear();
+            try {
+                header.initFrame(cipher, Cipher.DECRYPT_MODE, index, last);
+                cipher.doFinal(sealed, plain);
+            } catch (GeneralSecurityException e) {
+                throw new IOException(String.format("frame %d failed authentication", index), e);
+            }
+            plain.flip();
+            total += plain.remaining();
+            writeFully(target, plain);
+            position += frameLength;
+            index++;
+        } while (!last);
+        return total;
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer dst, long position) throws IOException {
+        while (dst.hasRemaining()) {
+            int r = source.read(dst, position);
+            if (r < 0) {
+                throw new EOFException(String.format("unexpected end of file at %d", position));
+            }
+            position += r;
+        }
+    }
+
+    private static void writeFully(WritableByteChannel target, ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            target.write(src);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.peter.common.encryption;
+
+import javax.crypto.Cipher;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+
+/**
+ * @ClassName RsaEnvelopeInputStream
+ * @Description 读 RsaEnvelopeOutputStream 写出的分帧密文，逐帧认证解密，内存占用只和帧大小有关
+ * 每帧认证通过后才返回其中的明文；帧被篡改、调换顺序或者密文被截断时抛出IOException，
+ * 之前已经返回的明文是可信的，但整个流没有读到结尾之前不能认为数据是完整的
+ * @Author peter
+ * @Date 2026/10/19 00:10
+ * @Version 1.0
+ */
+public class RsaEnvelopeInputStream extends FilterInputStream {
+    /**
+     * sealed ：密文帧缓冲区，多留一个字节用来预读，判断当前帧后面是否还有帧
+     * carry ：上一次预读到的下一帧的第一个字节，放在sealed[0]，值为0或1
+     * plain ：当前帧的明文，position 到 limit 之间是还没被读走的部分
+     */
+    private final RsaEnvelope.StreamHeader header;
+    private final Cipher cipher;
+    private final byte[] sealed;
+    private final byte[] plain;
+    private final byte[] single = new byte[1];
+    private int carry;
+    private int position;
+    private int limit;
+    private long index;
+    private boolean finished;
+
+    /**
+     * 构造时就会读出头并解开数据密钥
+     *
+     * @param in         密文输入
+     * @param privateKey 接收方私钥
+     */
+    public RsaEnvelopeInputStream(InputStream in, PrivateKey privateKey) throws IOException, GeneralSecurityException {
+        super(in);
+        byte[] prefix = new byte[RsaEnvelope.PREFIX_LENGTH];
+        readFully(prefix, 0, prefix.length);
+        byte[] bytes = new byte[RsaEnvelope.streamHeaderLength(prefix)];
+        System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+        readFully(bytes, prefix.length, bytes.length - prefix.length);
+        this.header = RsaEnvelope.openStreamHeader(privateKey, bytes);
+        this.cipher = Cipher.getInstance(RsaEnvelope.DATA_TRANSFORMATION);
+        this.sealed = new byte[header.frameSize() + RsaEnvelope.TAG_LENGTH + 1];
+        this.plain = new byte[header.frameSize()];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (position == limit) {
+            if (!nextFrame()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(plain, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            if (position == limit && !nextFrame()) {
+                break;
+            }
+            int step = (int) Math.min(n - skipped, limit - position);
+            position += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * 读入并解密下一帧；读满一帧后能再多读到一个字节，说明这不是最后一帧
+     */
+    private boolean nextFrame() throws IOException {
+        if (finished) {
+            return false;
+        }
+        int n = carry;
+        while (n < sealed.length) {
+            int r = in.read(sealed, n, sealed.length - n);
+            if (r < 0) {
+                break;
+            }
+            n += r;
+        }
+        boolean last = n < sealed.length;
+        int frameLength = last ? n : n - 1;
+        if (frameLength < RsaEnvelope.TAG_LENGTH) {
+            throw new EOFException(String.format("rsa envelope stream truncated in frame %d", index));
+        }
+        try {
+            header.initFrame(cipher, Cipher.DECRYPT_MODE, index, last);
+            limit = cipher.doFinal(sealed, 0, frameLength, plain, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(String.format("frame %d failed authentication", index), e);
+        }
+        position = 0;
+        index++;
+        if (last) {
+            finished = true;
+        } else {
+            sealed[0] = sealed[n - 1];
+            carry = 1;
+        }
+        return true;
+    }
+
+    private void readFully(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int r = in.read(b, off, len);
+            if (r < 0) {
+                throw new EOFException("rsa envelope stream header truncated");
+            }
+            off += r;
+            len -= r;
+        }
+    }
+}
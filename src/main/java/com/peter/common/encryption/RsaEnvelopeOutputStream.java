@@ -0,0 +1,106 @@
+package com.peter.common.encryption;
+
+import javax.crypto.Cipher;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+
+/**
+ * @ClassName RsaEnvelopeOutputStream
+ * @Description 按 RsaEnvelope 的分帧格式（版本 2）边写边加密，攒满一帧就加密写出，内存占用只和帧大小有关
+ * 必须 close 才会写出带结束标记的最后一帧，没有 close 的密文解密时会被当作截断而失败；
+ * flush 只刷新下层流，不会写出不满一帧的数据
+ * @Author peter
+ * @Date 2026/10/18 23:55
+ * @Version 1.0
+ */
+public class RsaEnvelopeOutputStream extends FilterOutputStream {
+    /**
+     * frame ：当前帧的明文缓冲区
+     * sealed ：加密后的帧，帧大小 + 16字节标签
+     * index ：下一帧的序号
+     */
+    private final RsaEnvelope.StreamHeader header;
+    private final Cipher cipher;
+    private final byte[] frame;
+    private final byte[] sealed;
+    private final byte[] single = new byte[1];
+    private int count;
+    private long index;
+    private boolean closed;
+
+    public RsaEnvelopeOutputStream(OutputStream out, PublicKey publicKey) throws IOException, GeneralSecurityException {
+        this(out, publicKey, RsaEnvelope.DEFAULT_FRAME_SIZE);
+    }
+
+    /**
+     * 构造时就会写出头
+     *
+     * @param out       密文输出
+     * @param publicKey 接收方公钥
+     * @param frameSize 帧明文大小
+     */
+    public RsaEnvelopeOutputStream(OutputStream out, PublicKey publicKey, int frameSize)
+            throws IOException, GeneralSecurityException {
+        super(out);
+        this.header = RsaEnvelope.newStreamHeader(publicKey, frameSize);
+        this.cipher = Cipher.getInstance(RsaEnvelope.DATA_TRANSFORMATION);
+        this.frame = new byte[frameSize];
+        this.sealed = new byte[frameSize + RsaEnvelope.TAG_LENGTH];
+        out.write(header.bytes());
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (closed) {
+            throw new IOException("stream closed");
+        }
+        while (len > 0) {
+            // 帧满了也先不写，等确定后面还有数据再按非最后一帧写出
+            if (count == frame.length) {
+                writeFrame(false);
+            }
+            int n = Math.min(len, frame.length - count);
+            System.arraycopy(b, off, frame, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeFrame(true);
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeFrame(boolean last) throws IOException {
+        try {
+            header.initFrame(cipher, Cipher.ENCRYPT_MODE, index++, last);
+            int n = cipher.doFinal(frame, 0, count, sealed, 0);
+            out.write(sealed, 0, n);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(String.format("encrypt frame %d failed", index - 1), e);
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,113 @@
+package com.peter.common.encryption;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @ClassName RsaKeyCache
+ * @Description 解析好的密钥缓存，有容量上限，按最近最少使用淘汰
+ * 以Base64密钥文本的SHA-256指纹为键：命中时只需要算一次摘要，省掉Base64解码和 KeyFactory 解析；
+ * 缓存里不保存密钥文本本身；解析方式由 Parser 决定，EcdsaUtil 也用它缓存EC密钥
+ * @Author peter
+ * @Date 2026/10/18 23:05
+ * @Version 1.0
+ */
+public class RsaKeyCache<K extends Key> {
+
+    /**
+     * 把DER编码的密钥解析成密钥对象
+     */
+    public interface Parser<K> {
+        K parse(byte[] encoded) throws GeneralSecurityException;
+    }
+
+    /**
+     * maxSize ：最多缓存的密钥个数
+     * keys ：按访问顺序排列的LRU表，读写都要持有自身的锁
+     */
+    private final int maxSize;
+    private final Parser<K> parser;
+    private final LinkedHashMap<Sha256Fingerprint, K> keys;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public RsaKeyCache(int maxSize, Parser<K> parser) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(String.format("max size must be positive: %d", maxSize));
+        }
+        this.maxSize = maxSize;
+        this.parser = parser;
+        this.keys = new LinkedHashMap<Sha256Fingerprint, K>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Sha256Fingerprint, K> eldest) {
+                if (size() > RsaKeyCache.this.maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 取密钥，没有缓存时解析并放入缓存
+     * 解析在锁外进行，同一个密钥并发未命中时可能被解析多次，结果相同，后放入的覆盖先放入的
+     *
+     * @param encoded Base64编码的密钥
+     * @return 密钥
+     * @throws GeneralSecurityException 密钥格式不对
+     */
+    public K get(String encoded) throws GeneralSecurityException {
+        Sha256Fingerprint fingerprint = Sha256Fingerprint.of(encoded.getBytes(StandardCharsets.US_ASCII));
+        K key;
+        synchronized (keys) {
+            key = keys.get(fingerprint);
+        }
+        if (key != null) {
+            hitCount.increment();
+            return key;
+        }
+        missCount.increment();
+        key = parser.parse(Base64Util.decode(encoded));
+        synchronized (keys) {
+            keys.put(fingerprint, key);
+        }
+        return key;
+    }
+
+    public int size() {
+        synchronized (keys) {
+            return keys.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void clear() {
+        synchronized (keys) {
+            keys.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 因超出容量被淘汰的次数
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+}
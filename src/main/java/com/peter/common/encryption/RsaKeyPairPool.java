@@ -0,0 +1,187 @@
+package com.peter.common.encryption;
+
+import java.io.Closeable;
+import java.security.InvalidParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @ClassName RsaKeyPairPool
+ * @Description 预生成RSA密钥对的池：2048/4096位的密钥对生成一次要几百毫秒，由低优先级的后台线程提前生成，
+ * 每种长度补充到水位线，调用方取用时直接拿现成的；池里没有时退回到在调用线程上同步生成
+ * 每个密钥对只会被取走一次，不会重复发给两个调用方
+ * @Author peter
+ * @Date 2026/10/19 02:20
+ * @Version 1.0
+ */
+public class RsaKeyPairPool implements Closeable {
+    /**
+     * DEFAULT_WATERMARK ：每种长度默认预生成的个数
+     * IDLE_PARK_NANOS ：补充线程空闲时的最长休眠时间，到点也会检查一次水位
+     */
+    public static final int DEFAULT_WATERMARK = 4;
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * pools ：按密钥长度分开的池，构造后不再改变
+     */
+    private final int watermark;
+    private final Map<Integer, BlockingQueue<KeyPair>> pools = new LinkedHashMap<>();
+    private final LongAdder takeCount = new LongAdder();
+    private final LongAdder fallbackCount = new LongAdder();
+    private final LongAdder generatedCount = new LongAdder();
+    private final AtomicBoolean refillRequested = new AtomicBoolean(false);
+    private final Thread refillThread;
+    private volatile boolean running = true;
+
+    /**
+     * 构造后立即在后台开始生成，不阻塞构造方法
+     *
+     * @param watermark 每种长度预生成的个数，如 DEFAULT_WATERMARK
+     * @param keySizes  要预生成的密钥长度，如 2048、4096
+     */
+    public RsaKeyPairPool(int watermark, int... keySizes) {
+        if (watermark <= 0 || keySizes.length == 0) {
+            throw new IllegalArgumentException(String.format(
+                    "watermark must be positive and key sizes not empty: %d, %s", watermark, Arrays.toString(keySizes)));
+        }
+        this.watermark = watermark;
+        for (int keySize : keySizes) {
+            checkKeySize(keySize);
+            pools.put(keySize, new ArrayBlockingQueue<>(watermark));
+        }
+        this.refillThread = new Thread(this::refillLoop, "rsa-keypair-refill");
+        this.refillThread.setDaemon(true);
+        this.refillThread.setPriority(Thread.MIN_PRIORITY);
+        this.refillThread.start();
+    }
+
+    /**
+     * 取一个密钥对，池里有就直接返回，没有就同步生成；没有配置的长度总是同步生成
+     *
+     * @param keySize 密钥长度
+     * @return 密钥对
+     */
+    public KeyPair take(int keySize) {
+        takeCount.increment();
+        BlockingQueue<KeyPair> pool = pools.get(keySize);
+        KeyPair keyPair = pool == null ? null : pool.poll();
+        if (pool != null) {
+            requestRefill();
+        }
+        if (keyPair != null) {
+            return keyPair;
+        }
+        fallbackCount.increment();
+        return generate(keySize);
+    }
+
+    /**
+     * 某个长度当前池里现成的密钥对个数，没有配置的长度返回0
+     */
+    public int getDepth(int keySize) {
+        BlockingQueue<KeyPair> pool = pools.get(keySize);
+        return pool == null ? 0 : pool.size();
+    }
+
+    public int getWatermark() {
+        return watermark;
+    }
+
+    public long getTakeCount() {
+        return takeCount.sum();
+    }
+
+    /**
+     * 池里没有现成的、在调用线程上同步生成的次数
+     */
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    /**
+     * 后台线程生成的密钥对总数
+     */
+    public long getGeneratedCount() {
+        return generatedCount.sum();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(refillThread);
+        try {
+            refillThread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * initialize 只检查参数，不会真的生成，不支持的长度在这里就能发现
+     */
+    static void checkKeySize(int keySize) {
+        try {
+            KeyPairGenerator.getInstance("RSA").initialize(keySize);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (InvalidParameterException e) {
+            throw new IllegalArgumentException(String.format("unsupported rsa key size: %d", keySize), e);
+        }
+    }
+
+    static KeyPair generate(int keySize) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(keySize);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            // 每个JRE都必须支持RSA
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void requestRefill() {
+        if (refillRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(refillThread);
+        }
+    }
+
+    /**
+     * 各种长度轮流生成，每轮每种长度只补一个，避免某个长度一直排在后面
+     */
+    private void refillLoop() {
+        while (running) {
+            refillRequested.set(false);
+            boolean full = false;
+            while (running && !full) {
+                full = true;
+                for (Map.Entry<Integer, BlockingQueue<KeyPair>> entry : pools.entrySet()) {
+                    if (!running || entry.getValue().remainingCapacity() == 0) {
+                        continue;
+                    }
+                    try {
+                        entry.getValue().offer(generate(entry.getKey()));
+                        generatedCount.increment();
+                    } catch (RuntimeException e) {
+                        // 长度在构造时已经检查过，一般不会走到这里；这一轮跳过，下一轮再试
+                        System.err.printf("generate %d bit rsa key pair failed: %s%n", entry.getKey(), e.getMessage());
+                        continue;
+                    }
+                    full = false;
+                }
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.peter.common.encryption;
 
-import org.apache.tomcat.util.codec.binary.Base64;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
 import javax.crypto.Cipher;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.*;
+import java.security.interfaces.RSAKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @ClassName: RsaUtil
@@ -25,12 +32,37 @@ public class RsaUtil {
 
     /**
      * PROVIDER_NAME ： BouncyCastleProvider的名字
-     * MAX_ENCRYPT_BLOCK ： RSA最大加密明文大小
-     * MAX_DECRYPT_BLOCK ：RSA最大解密密文大小
+     * PKCS1_PADDING_OVERHEAD ：PKCS#1 v1.5 填充占用的字节数，每段明文最多为密钥字节数减去它
+     * DEFAULT_KEY_BYTES ：拿不到模数时按1024位密钥分段，和改为按密钥计算之前的117/128一致
      */
     private static final String PROVIDER_NAME = "BC";
-    private static final int MAX_ENCRYPT_BLOCK = 117;
-    private static final int MAX_DECRYPT_BLOCK = 128;
+    private static final int PKCS1_PADDING_OVERHEAD = 11;
+    private static final int DEFAULT_KEY_BYTES = 128;
+
+    /**
+     * ENGINE ：按JCA默认顺序查找算法的引擎
+     * BC_ENGINE ：固定使用 BouncyCastle 的引擎
+     */
+    private static final RsaCryptoEngine ENGINE = new RsaCryptoEngine();
+    private static final RsaCryptoEngine BC_ENGINE = new RsaCryptoEngine(PROVIDER_NAME);
+
+    /**
+     * BLOCK_DECRYPTOR ：默认的分段解密器，段数达到 RsaBlockDecryptor.DEFAULT_PARALLEL_THRESHOLD 时按CPU核数并行
+     * BATCH_SIGNER ：默认的批量签名验签器，条数达到 RsaBatchSigner.DEFAULT_PARALLEL_THRESHOLD 时按CPU核数并行
+     */
+    private static final RsaBlockDecryptor BLOCK_DECRYPTOR = new RsaBlockDecryptor();
+    private static final RsaBatchSigner BATCH_SIGNER = new RsaBatchSigner();
+
+    /**
+     * KEY_CACHE_SIZE ：公钥、私钥缓存各自的容量
+     * PUBLIC_KEYS ：解析好的公钥
+     * PRIVATE_KEYS ：解析好的私钥
+     */
+    private static final int KEY_CACHE_SIZE = 256;
+    private static final RsaKeyCache<PublicKey> PUBLIC_KEYS = new RsaKeyCache<>(KEY_CACHE_SIZE,
+            encoded -> ENGINE.keyFactory("RSA").generatePublic(new X509EncodedKeySpec(encoded)));
+    private static final RsaKeyCache<PrivateKey> PRIVATE_KEYS = new RsaKeyCache<>(KEY_CACHE_SIZE,
+            encoded -> ENGINE.keyFactory("RSA").generatePrivate(new PKCS8EncodedKeySpec(encoded)));
 
     /**
      * 获取密钥对
@@ -46,46 +78,53 @@ public class RsaUtil {
 
 
     /**
-     * 根据长度获取密钥对
+     * 根据长度获取密钥对，在调用线程上同步生成；2048位以上生成较慢，频繁调用时用 RsaKeyPairPool 预生成
      *
-     * @param length 长度
+     * @param length 长度，如 2048
      * @return 秘钥对
-     * @throws Exception 异常
+     * @throws Exception 异常，不支持的长度抛出 IllegalArgumentException
      */
     public static KeyPair getKeyPair(int length) throws Exception {
-        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
-        generator.initialize(1024);
-        return generator.generateKeyPair();
+        RsaKeyPairPool.checkKeySize(length);
+        return RsaKeyPairPool.generate(length);
     }
 
 
     /**
-     * 获取私钥
+     * 获取私钥，解析结果会被缓存
      *
      * @param privateKey 获取私钥的key
      * @return 返回私钥
      * @throws Exception 异常
      */
     public static PrivateKey getPrivateKey(String privateKey) throws Exception {
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        byte[] decodedKey = Base64.decodeBase64(privateKey.getBytes());
-        PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(decodedKey);
-        return keyFactory.generatePrivate(keySpec);
+        return PRIVATE_KEYS.get(privateKey);
     }
 
 
     /**
-     * 获取公钥
+     * 获取公钥，解析结果会被缓存
      *
      * @param publicKey 获取公钥的字符串
      * @return 返回公钥
      * @throws Exception 异常
      */
     public static PublicKey getPublicKey(String publicKey) throws Exception {
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        byte[] decodedKey = Base64.decodeBase64(publicKey.getBytes());
-        X509EncodedKeySpec keySpec = new X509EncodedKeySpec(decodedKey);
-        return keyFactory.generatePublic(keySpec);
+        return PUBLIC_KEYS.get(publicKey);
+    }
+
+    /**
+     * 公钥缓存，用于查看命中率等统计
+     */
+    public static RsaKeyCache<PublicKey> getPublicKeyCache() {
+        return PUBLIC_KEYS;
+    }
+
+    /**
+     * 私钥缓存，用于查看命中率等统计
+     */
+    public static RsaKeyCache<PrivateKey> getPrivateKeyCache() {
+        return PRIVATE_KEYS;
     }
 
     /**
@@ -97,34 +136,61 @@ public class RsaUtil {
      * @throws Exception 异常
      */
     public static String encrypt(String data, PublicKey publicKey) throws Exception {
-        Cipher cipher = Cipher.getInstance("RSA");
-        cipher.init(Cipher.ENCRYPT_MODE, publicKey);
-        int inputLen = data.getBytes().length;
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        int offset = 0;
-        byte[] cache;
-        int i = 0;
-        // 对数据分段加密
-        while (inputLen - offset > 0) {
-            if (inputLen - offset > MAX_ENCRYPT_BLOCK) {
-                cache = cipher.doFinal(data.getBytes(), offset, MAX_ENCRYPT_BLOCK);
-            } else {
-                cache = cipher.doFinal(data.getBytes(), offset, inputLen - offset);
-            }
-            out.write(cache, 0, cache.length);
-            i++;
-            offset = i * MAX_ENCRYPT_BLOCK;
-        }
-        byte[] encryptedData = out.toByteArray();
-        out.close();
+        byte[] dataBytes = data.getBytes();
+        byte[] encryptedData = doFinalBlocks(Cipher.ENCRYPT_MODE, publicKey, dataBytes,
+                keyBytes(publicKey) - PKCS1_PADDING_OVERHEAD);
         // 获取加密内容使用base64进行编码,并以UTF-8为标准转化成字符串
         // 加密后的字符串
-        return new String(Base64.encodeBase64String(encryptedData));
+        return Base64Util.encodeToString(encryptedData);
+    }
+
+    /**
+     * 数字信封加密：RSA-OAEP只加密随机生成的AES-256数据密钥，正文用AES-GCM加密，适合较大的数据
+     * 格式见 RsaEnvelope，decrypt 会自动识别
+     *
+     * @param data      加密数据
+     * @param publicKey 公钥
+     * @return Base64编码的信封
+     * @throws Exception 异常
+     */
+    public static String encryptEnvelope(String data, PublicKey publicKey) throws Exception {
+        return Base64Util.encodeToString(RsaEnvelope.seal(publicKey, data.getBytes(StandardCharsets.UTF_8)));
     }
 
 
     /**
-     * RSA解密
+     * 流式加密：按数字信封的分帧格式边读边加密，内存占用只和帧大小有关，适合导出文件等大数据
+     * 例如导出Excel时可以直接 export(new RsaEnvelopeOutputStream(out, publicKey))
+     *
+     * @param in        明文输入，读到结尾为止，不会关闭
+     * @param out       密文输出，写完后会被关闭
+     * @param publicKey 公钥
+     * @return 加密的明文字节数
+     * @throws Exception 异常
+     */
+    public static long encrypt(InputStream in, OutputStream out, PublicKey publicKey) throws Exception {
+        try (OutputStream encrypting = new RsaEnvelopeOutputStream(out, publicKey)) {
+            return copy(in, encrypting);
+        }
+    }
+
+    /**
+     * 流式解密，只支持 encrypt(InputStream, OutputStream, PublicKey) 生成的分帧格式
+     *
+     * @param in         密文输入，读完后会被关闭
+     * @param out        明文输出，不会关闭
+     * @param privateKey 私钥
+     * @return 解密出的明文字节数
+     * @throws Exception 异常，密文被截断或篡改时抛出IOException
+     */
+    public static long decrypt(InputStream in, OutputStream out, PrivateKey privateKey) throws Exception {
+        try (InputStream decrypting = new RsaEnvelopeInputStream(in, privateKey)) {
+            return copy(decrypting, out);
+        }
+    }
+
+    /**
+     * RSA解密，同时支持分段RSA密文和 encryptEnvelope 生成的数字信封
      *
      * @param data       解密自符串
      * @param privateKey 解密的私钥
@@ -132,27 +198,36 @@ public class RsaUtil {
      * @throws Exception 抛出异常
      */
     public static String decrypt(String data, PrivateKey privateKey) throws Exception {
-        Cipher cipher = Cipher.getInstance("RSA");
-        cipher.init(Cipher.DECRYPT_MODE, privateKey);
-        byte[] dataBytes = Base64.decodeBase64(data);
-        int inputLen = dataBytes.length;
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        int offset = 0;
-        byte[] cache;
-        int i = 0;
-        // 对数据分段解密
-        while (inputLen - offset > 0) {
-            if (inputLen - offset > MAX_DECRYPT_BLOCK) {
-                cache = cipher.doFinal(dataBytes, offset, MAX_DECRYPT_BLOCK);
-            } else {
-                cache = cipher.doFinal(dataBytes, offset, inputLen - offset);
+        return decrypt(data, privateKey, BLOCK_DECRYPTOR);
+    }
+
+    /**
+     * RSA解密，分段RSA密文用指定的解密器，可以自己设置并行度和开始并行的段数
+     *
+     * @param data       解密自符串
+     * @param privateKey 解密的私钥
+     * @param decryptor  分段解密器
+     * @return 返回字符串
+     * @throws Exception 抛出异常
+     */
+    public static String decrypt(String data, PrivateKey privateKey, RsaBlockDecryptor decryptor) throws Exception {
+        byte[] dataBytes = Base64Util.decode(data);
+        int blockSize = keyBytes(privateKey);
+        byte[] decryptedData;
+        if (RsaEnvelope.isEnvelope(dataBytes)) {
+            try {
+                decryptedData = RsaEnvelope.open(privateKey, dataBytes);
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                // 分段RSA密文的开头恰好和信封的魔数、版本相同，长度又是整块时，按旧格式再解一次；
+                // 这时信封头里的长度是随机的，可能解不开数据密钥，也可能长度对不上被判为截断
+                if (dataBytes.length % blockSize != 0) {
+                    throw e;
+                }
+                decryptedData = decryptor.decrypt(privateKey, dataBytes, blockSize);
             }
-            out.write(cache, 0, cache.length);
-            i++;
-            offset = i * MAX_DECRYPT_BLOCK;
+        } else {
+            decryptedData = decryptor.decrypt(privateKey, dataBytes, blockSize);
         }
-        byte[] decryptedData = out.toByteArray();
-        out.close();
         // 解密后的内容
         return new String(decryptedData, "UTF-8");
     }
@@ -167,14 +242,7 @@ public class RsaUtil {
      * @throws Exception 抛出异常
      */
     public static String sign(String data, PrivateKey privateKey) throws Exception {
-        byte[] keyBytes = privateKey.getEncoded();
-        PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(keyBytes);
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        PrivateKey key = keyFactory.generatePrivate(keySpec);
-        Signature signature = Signature.getInstance("Sha1WithRSA");
-        signature.initSign(key);
-        signature.update(data.getBytes());
-        return new String(Base64.encodeBase64(signature.sign()));
+        return Base64Util.encodeToString(ENGINE.sign("Sha1WithRSA", privateKey, data.getBytes()));
     }
 
     /**
@@ -187,14 +255,7 @@ public class RsaUtil {
      * @throws Exception 抛出异常
      */
     public static boolean verify(String srcData, PublicKey publicKey, String sign) throws Exception {
-        byte[] keyBytes = publicKey.getEncoded();
-        X509EncodedKeySpec keySpec = new X509EncodedKeySpec(keyBytes);
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        PublicKey key = keyFactory.generatePublic(keySpec);
-        Signature signature = Signature.getInstance("Sha256WithRSA");
-        signature.initVerify(key);
-        signature.update(srcData.getBytes());
-        return signature.verify(sign.getBytes());
+        return ENGINE.verify("Sha256WithRSA", publicKey, srcData.getBytes(), sign.getBytes());
     }
 
     /**
@@ -208,27 +269,121 @@ public class RsaUtil {
      * @throws SignatureException  签名或数据错误
      */
     public static boolean checkSign(RSAPublicKey publicKey, byte[] content, byte[] sign) throws InvalidKeyException, SignatureException {
-        Signature signature;
         try {
-            signature = Signature.getInstance("Sha256WithRSA", PROVIDER_NAME);
-        } catch (NoSuchAlgorithmException e) {
+            return BC_ENGINE.verify("Sha256WithRSA", publicKey, content, sign);
+        } catch (InvalidKeyException | SignatureException e) {
+            throw e;
+        } catch (GeneralSecurityException e) {
             //签名算法名是本工具类提供的，如果错了业务没有办法处理。所以这个异常不需要外部捕获。
             throw new RuntimeException(e);
-        } catch (NoSuchProviderException e) {
+        }
+    }
+
+    private static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        for (int n; (n = in.read(buffer)) >= 0; ) {
+            out.write(buffer, 0, n);
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * 公钥验签字节数组，先查验签结果缓存，同一个（公钥、原文、签名）重复送来时不再做RSA运算
+     * 未命中时用缓存自己的 RsaCryptoEngine 验签，Provider 由创建缓存时决定
+     *
+     * @param publicKey 公钥
+     * @param content   待签名数据
+     * @param sign      签名值
+     * @param cache     验签结果缓存
+     * @return 验签结果
+     * @throws InvalidKeyException 公钥错误
+     * @throws SignatureException  签名或数据错误
+     */
+    public static boolean checkSign(RSAPublicKey publicKey, byte[] content, byte[] sign, VerificationCache cache)
+            throws InvalidKeyException, SignatureException {
+        try {
+            return cache.verify(SignedMessage.DEFAULT_ALGORITHM, publicKey, content, sign);
+        } catch (InvalidKeyException | SignatureException e) {
+            throw e;
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException(e);
         }
-        signature.initVerify(publicKey);
-        signature.update(content);
-        return signature.verify(sign);
     }
 
+    /**
+     * 密钥模数的字节数，即每段密文的长度；1024位为128，2048位为256
+     *
+     * @param key RSA密钥
+     * @return 模数的字节数，不是 RSAKey 时按1024位处理
+     */
+    private static int keyBytes(Key key) {
+        if (key instanceof RSAKey) {
+            return (((RSAKey) key).getModulus().bitLength() + 7) >>> 3;
+        }
+        return DEFAULT_KEY_BYTES;
+    }
+
+    /**
+     * 分段加解密，每段单独 doFinal；Cipher 取自线程缓存，中途出错时丢弃，避免把半截状态留给下一次调用
+     *
+     * @param mode      加密或解密
+     * @param key       密钥
+     * @param input     输入数据
+     * @param blockSize 每段的最大长度
+     * @return 各段结果拼接后的数据
+     */
+    private static byte[] doFinalBlocks(int mode, Key key, byte[] input, int blockSize) throws Exception {
+        Cipher cipher = ENGINE.cipher("RSA", mode, key);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            for (int offset = 0; offset < input.length; offset += blockSize) {
+                byte[] cache = cipher.doFinal(input, offset, Math.min(blockSize, input.length - offset));
+                out.write(cache, 0, cache.length);
+            }
+        } catch (GeneralSecurityException | RuntimeException e) {
+            ENGINE.evictCipher("RSA");
+            throw e;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 批量验签，签名算法由每条消息自己指定，默认 SHA256withRSA
+     *
+     * @param messages 待验签的消息
+     * @return 第 i 位表示第 i 条消息是否验签通过
+     */
+    public static BitSet verifyAll(List<SignedMessage> messages) {
+        return BATCH_SIGNER.verifyAll(messages);
+    }
+
+    /**
+     * 异步批量验签
+     */
+    public static CompletableFuture<BitSet> verifyAllAsync(List<SignedMessage> messages) {
+        return BATCH_SIGNER.verifyAllAsync(messages);
+    }
+
+    /**
+     * 用同一个私钥批量签名，签名算法 SHA256withRSA，和 checkSign、verifyAll 对应
+     *
+     * @param payloads   待签名数据
+     * @param privateKey 私钥
+     * @return 和 payloads 一一对应的签名值
+     * @throws GeneralSecurityException 任意一条签名失败时抛出
+     */
+    public static List<byte[]> signAll(List<byte[]> payloads, PrivateKey privateKey) throws GeneralSecurityException {
+        return BATCH_SIGNER.signAll(SignedMessage.DEFAULT_ALGORITHM, privateKey, payloads);
+    }
 
     public static void main(String[] args) {
         try {
             // 生成密钥对
             KeyPair keyPair = getKeyPair();
-            String privateKey = new String(Base64.encodeBase64(keyPair.getPrivate().getEncoded()));
-            String publicKey = new String(Base64.encodeBase64(keyPair.getPublic().getEncoded()));
+            String privateKey = Base64Util.encodeToString(keyPair.getPrivate().getEncoded());
+            String publicKey = Base64Util.encodeToString(keyPair.getPublic().getEncoded());
             System.out.println("私钥:" + privateKey);
             System.out.println("公钥:" + publicKey);
 
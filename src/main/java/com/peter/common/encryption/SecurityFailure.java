@@ -0,0 +1,26 @@
+package com.peter.common.encryption;
+
+import java.security.GeneralSecurityException;
+
+/**
+ * @ClassName SecurityFailure
+ * @Description 把受检的 GeneralSecurityException 带出 ForkJoin 任务，由提交任务的一方还原后再抛出
+ * 没有公共构造方法，ForkJoinTask 跨线程重抛时不会重新构造它，拿到的就是原来的实例
+ * @Author peter
+ * @Date 2026/10/19 01:20
+ * @Version 1.0
+ */
+final class SecurityFailure extends RuntimeException {
+    private static final long serialVersionUID = -6792893237999624584L;
+
+    private final GeneralSecurityException failure;
+
+    SecurityFailure(GeneralSecurityException failure) {
+        super(failure);
+        this.failure = failure;
+    }
+
+    GeneralSecurityException getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,53 @@
+package com.peter.common.encryption;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * @ClassName Sha256Fingerprint
+ * @Description 用作缓存键的SHA-256摘要，摘要本身已经足够分散，直接取前4个字节作为hashCode
+ * @Author peter
+ * @Date 2026/10/19 02:05
+ * @Version 1.0
+ */
+final class Sha256Fingerprint {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 每个JRE都必须支持SHA-256
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final byte[] digest;
+    private final int hash;
+
+    Sha256Fingerprint(byte[] digest) {
+        this.digest = digest;
+        this.hash = (digest[0] & 0xFF) << 24 | (digest[1] & 0xFF) << 16 | (digest[2] & 0xFF) << 8 | digest[3] & 0xFF;
+    }
+
+    /**
+     * 当前线程复用的 MessageDigest，用完要调用 digest() 把状态清掉
+     */
+    static MessageDigest sha256() {
+        return SHA256.get();
+    }
+
+    static Sha256Fingerprint of(byte[] data) {
+        return new Sha256Fingerprint(SHA256.get().digest(data));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Sha256Fingerprint && Arrays.equals(digest, ((Sha256Fingerprint) o).digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,50 @@
+package com.peter.common.encryption;
+
+import java.security.PublicKey;
+
+/**
+ * @ClassName SignedMessage
+ * @Description 一条待验签的消息：公钥、原文和签名值，供 RsaBatchSigner 批量验签
+ * 数组不做拷贝，放进批量验签之后不要再修改
+ * @Author peter
+ * @Date 2026/10/19 01:25
+ * @Version 1.0
+ */
+public class SignedMessage {
+    /**
+     * DEFAULT_ALGORITHM ：默认签名算法，和 RsaUtil.checkSign 一致
+     */
+    public static final String DEFAULT_ALGORITHM = "SHA256withRSA";
+
+    private final String algorithm;
+    private final PublicKey publicKey;
+    private final byte[] payload;
+    private final byte[] signature;
+
+    public SignedMessage(PublicKey publicKey, byte[] payload, byte[] signature) {
+        this(DEFAULT_ALGORITHM, publicKey, payload, signature);
+    }
+
+    public SignedMessage(String algorithm, PublicKey publicKey, byte[] payload, byte[] signature) {
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.payload = payload;
+        this.signature = signature;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public PublicKey getPublicKey() {
+        return publicKey;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public byte[] getSignature() {
+        return signature;
+    }
+}
@@ -0,0 +1,185 @@
+package com.peter.common.encryption;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @ClassName TokenCodec
+ * @Description 紧凑的不透明令牌编码：先deflate压缩再做URL安全的Base64（不填充），放在Cookie、请求头里更短
+ * 第一个字节标记是否压缩：小于阈值的内容、以及压缩后反而不变小的内容都原样保存，省掉压缩的开销
+ * Deflater/Inflater 每次创建都会申请一块native内存，所以放在池子里复用，用完 reset 归还，池满了才 end 掉
+ * 注意这里只是编码，不是加密，令牌内容需要防篡改时要另外签名
+ * @Author peter
+ * @Date 2026/10/18 22:10
+ * @Version 1.0
+ */
+public class TokenCodec {
+    /**
+     * RAW ：未压缩
+     * DEFLATED ：raw deflate 压缩（没有zlib头和校验和）
+     * DEFAULT_THRESHOLD ：小于这个字节数的内容不压缩
+     * DEFAULT_MAX_DECODED_LENGTH ：解压后的最大长度，防止构造出来的令牌解压成超大数据
+     */
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+    public static final int DEFAULT_THRESHOLD = 128;
+    public static final int DEFAULT_MAX_DECODED_LENGTH = 1 << 20;
+
+    private final int threshold;
+    private final int level;
+    private final int maxDecodedLength;
+    private final BlockingQueue<Deflater> deflaters;
+    private final BlockingQueue<Inflater> inflaters;
+
+    public TokenCodec() {
+        this(DEFAULT_THRESHOLD, Deflater.BEST_COMPRESSION, Runtime.getRuntime().availableProcessors() * 2,
+                DEFAULT_MAX_DECODED_LENGTH);
+    }
+
+    /**
+     * @param threshold        小于这个字节数的内容不压缩
+     * @param level            压缩级别 0~9
+     * @param poolSize         Deflater 和 Inflater 各自最多缓存的个数
+     * @param maxDecodedLength 解压后的最大长度
+     */
+    public TokenCodec(int threshold, int level, int poolSize, int maxDecodedLength) {
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(String.format("illegal compression level: %d", level));
+        }
+        if (poolSize <= 0 || maxDecodedLength <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "pool size and max decoded length must be positive: %d, %d", poolSize, maxDecodedLength));
+        }
+        this.threshold = threshold;
+        this.level = level;
+        this.maxDecodedLength = maxDecodedLength;
+        this.deflaters = new ArrayBlockingQueue<>(poolSize);
+        this.inflaters = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    public String encode(String payload) {
+        return encode(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 编码
+     *
+     * @param payload 原始内容
+     * @return URL安全的令牌
+     */
+    public String encode(byte[] payload) {
+        // 压缩结果直接写在头字节后面，输出空间只给原始长度：写不下就说明压缩不划算，改存原文
+        byte[] body = new byte[payload.length + 1];
+        int length = payload.length >= threshold ? deflate(payload, body) : -1;
+        if (length < 0) {
+            body[0] = RAW;
+            System.arraycopy(payload, 0, body, 1, payload.length);
+            length = payload.length;
+        } else {
+            body[0] = DEFLATED;
+        }
+        byte[] token = new byte[Base64Util.encodedLength(length + 1, Base64Util.Alphabet.URL_SAFE_NO_PADDING)];
+        Base64Util.encode(body, 0, length + 1, token, 0, Base64Util.Alphabet.URL_SAFE_NO_PADDING);
+        return new String(token, StandardCharsets.US_ASCII);
+    }
+
+    public String decodeToString(String token) {
+        return new String(decode(token), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解码
+     *
+     * @param token encode 生成的令牌
+     * @return 原始内容
+     */
+    public byte[] decode(String token) {
+        byte[] body = Base64Util.decode(token);
+        if (body.length == 0) {
+            throw new IllegalArgumentException("empty token");
+        }
+        switch (body[0]) {
+            case RAW:
+                return Arrays.copyOfRange(body, 1, body.length);
+            case DEFLATED:
+                return inflate(body);
+            default:
+                throw new IllegalArgumentException(String.format("unknown token header: %d", body[0]));
+        }
+    }
+
+    /**
+     * 池里空闲的 Deflater 个数
+     */
+    public int getIdleDeflaters() {
+        return deflaters.size();
+    }
+
+    /**
+     * 池里空闲的 Inflater 个数
+     */
+    public int getIdleInflaters() {
+        return inflaters.size();
+    }
+
+    /**
+     * @return 压缩后的长度；压缩后不比原文短时返回-1
+     */
+    private int deflate(byte[] payload, byte[] body) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished() && length < payload.length) {
+                length += deflater.deflate(body, 1 + length, payload.length - length);
+            }
+            return deflater.finished() && length < payload.length ? length : -1;
+        } finally {
+            deflater.reset();
+            if (!deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private byte[] inflate(byte[] body) {
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            inflater.setInput(body, 1, body.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(body.length * 4, maxDecodedLength));
+            byte[] buffer = new byte[Math.min(4096, maxDecodedLength + 1)];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("truncated token");
+                }
+                if (out.size() + n > maxDecodedLength) {
+                    throw new IllegalArgumentException(
+                            String.format("token expands beyond %d bytes", maxDecodedLength));
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("corrupted token", e);
+        } finally {
+            inflater.reset();
+            if (!inflaters.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.peter.common.encryption;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * @ClassName VerificationCache
+ * @Description 验签结果缓存：上游重试会把同一个（公钥、原文、签名）反复送来验签，命中缓存时只算一次SHA-256，省掉RSA公钥运算
+ * 键是 SHA-256(算法, 公钥编码, 原文, 签名)，每一段前面都带长度，不同的拼接方式不会得到相同的输入
+ * 验签通过和不通过的结果都会缓存；验签抛异常时不缓存
+ * 条目写入后超过存活时间就失效，条目数超过上限时按最近最少使用淘汰
+ * @Author peter
+ * @Date 2026/10/19 01:55
+ * @Version 1.0
+ */
+public class VerificationCache {
+
+    /**
+     * engine ：未命中时用来验签
+     * ttlNanos ：条目的存活时间
+     * ticker ：纳秒时钟，测试时可以替换
+     * results ：按访问顺序排列的LRU表，值是条目的过期时间和验签结果，读写都要持有自身的锁
+     */
+    private final RsaCryptoEngine engine;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<Sha256Fingerprint, Result> results;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+
+    public VerificationCache(int maxSize, long ttl, TimeUnit unit) {
+        this(new RsaCryptoEngine(), maxSize, ttl, unit);
+    }
+
+    /**
+     * @param engine  未命中时用来验签的引擎，决定使用哪个 Provider
+     * @param maxSize 最多缓存的条目数
+     * @param ttl     条目写入后的存活时间
+     * @param unit    存活时间的单位
+     */
+    public VerificationCache(RsaCryptoEngine engine, int maxSize, long ttl, TimeUnit unit) {
+        this(engine, maxSize, unit.toNanos(ttl), System::nanoTime);
+    }
+
+    VerificationCache(RsaCryptoEngine engine, int maxSize, long ttlNanos, LongSupplier ticker) {
+        if (maxSize <= 0 || ttlNanos <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("max size and ttl must be positive: %d, %dns", maxSize, ttlNanos));
+        }
+        this.engine = engine;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.ticker = ticker;
+        this.results = new LinkedHashMap<Sha256Fingerprint, Result>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Sha256Fingerprint, Result> eldest) {
+                if (size() > VerificationCache.this.maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 验签，结果有缓存时直接返回
+     *
+     * @param algorithm 签名算法，如 SHA256withRSA
+     * @param publicKey 公钥
+     * @param payload   原文
+     * @param signature 签名值
+     * @return 是否验签通过
+     * @throws GeneralSecurityException 和 RsaCryptoEngine.verify 相同
+     */
+    public boolean verify(String algorithm, PublicKey publicKey, byte[] payload, byte[] signature)
+            throws GeneralSecurityException {
+        Sha256Fingerprint fingerprint = fingerprint(algorithm, publicKey, payload, signature);
+        long now = ticker.getAsLong();
+        synchronized (results) {
+            Result result = results.get(fingerprint);
+            if (result != null) {
+                if (now - result.expiresAt < 0) {
+                    hitCount.increment();
+                    return result.verified;
+                }
+                results.remove(fingerprint);
+                expiredCount.increment();
+            }
+        }
+        missCount.increment();
+        boolean verified = engine.verify(algorithm, publicKey, payload, signature);
+        synchronized (results) {
+            results.put(fingerprint, new Result(now + ttlNanos, verified));
+        }
+        return verified;
+    }
+
+    public boolean verify(SignedMessage message) throws GeneralSecurityException {
+        return verify(message.getAlgorithm(), message.getPublicKey(), message.getPayload(), message.getSignature());
+    }
+
+    public int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (results) {
+            results.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 命中率，还没有请求时为0
+     */
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * 因超出容量被淘汰的次数
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 访问时发现已经过期而被移除的次数
+     */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    private static Sha256Fingerprint fingerprint(String algorithm, PublicKey publicKey, byte[] payload, byte[] signature) {
+        MessageDigest digest = Sha256Fingerprint.sha256();
+        update(digest, algorithm.getBytes(StandardCharsets.UTF_8));
+        update(digest, publicKey.getEncoded());
+        update(digest, payload);
+        update(digest, signature);
+        return new Sha256Fingerprint(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, byte[] bytes) {
+        int length = bytes.length;
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+        digest.update(bytes);
+    }
+
+    private static final class Result {
+        private final long expiresAt;
+        private final boolean verified;
+
+        private Result(long expiresAt, boolean verified) {
+            this.expiresAt = expiresAt;
+            this.verified = verified;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.peter.common.shard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @ClassName ConsistentHashShardRouter
+ * @Description 一致性哈希路由：每个分片在哈希环上放若干虚拟节点，ID打散后落到环上顺时针第一个虚拟节点
+ * 构造时把环预先展开成 2^bucketBits 个桶的路由表，路由时只做一次哈希加一次数组下标，不查找也不创建对象
+ * 增加分片用 withShard 生成新的路由器，只有新分片的虚拟节点接管的那部分数据需要迁移，约占 1/(n+1)
+ * 不要直接用 id % n：Snowflake ID低位是序列号，分布很不均匀，并且改变n时几乎所有数据都要迁移
+ * @Author peter
+ * @Date 2026/10/18 18:55
+ * @Version 1.0
+ */
+public class ConsistentHashShardRouter implements ShardRouter {
+    /**
+     * DEFAULT_VIRTUAL_NODES ：每个分片的虚拟节点数
+     * DEFAULT_BUCKET_BITS ：路由表 2^16 个桶
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+    public static final int DEFAULT_BUCKET_BITS = 16;
+
+    private final List<ShardTarget> targets;
+    private final int virtualNodes;
+    private final int bucketBits;
+    private final int bucketShift;
+    private final ShardTarget[] buckets;
+
+    public ConsistentHashShardRouter(List<ShardTarget> targets) {
+        this(targets, DEFAULT_VIRTUAL_NODES, DEFAULT_BUCKET_BITS);
+    }
+
+    public ConsistentHashShardRouter(List<ShardTarget> targets, int virtualNodes, int bucketBits) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("targets can't be empty");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException(String.format("virtual nodes must be positive: %d", virtualNodes));
+        }
+        if (bucketBits <= 0 || bucketBits > 24) {
+            throw new IllegalArgumentException(String.format("bucket bits must be between 1 and 24: %d", bucketBits));
+        }
+        if (targets.size() != targets.stream().distinct().count()) {
+            throw new IllegalArgumentException(String.format("duplicate shard targets: %s", targets));
+        }
+        this.targets = Collections.unmodifiableList(new ArrayList<>(targets));
+        this.virtualNodes = virtualNodes;
+        this.bucketBits = bucketBits;
+        this.bucketShift = 64 - bucketBits;
+        this.buckets = buildBuckets();
+    }
+
+    @Override
+    public ShardTarget route(long id) {
+        return buckets[(int) (mix64(id) >>> bucketShift)];
+    }
+
+    /**
+     * 增加一个分片，返回新的路由器，原路由器不变，方便迁移期间新旧两份路由同时使用
+     *
+     * @param target 新分片
+     * @return 新的路由器
+     */
+    public ConsistentHashShardRouter withShard(ShardTarget target) {
+        List<ShardTarget> next = new ArrayList<>(targets);
+        next.add(target);
+        return new ConsistentHashShardRouter(next, virtualNodes, bucketBits);
+    }
+
+    public List<ShardTarget> getTargets() {
+        return targets;
+    }
+
+    /**
+     * 先在环上放好所有虚拟节点，每个桶取其起点顺时针方向的第一个虚拟节点
+     */
+    private ShardTarget[] buildBuckets() {
+        int points = targets.size() * virtualNodes;
+        // 哈希值按无符号比较，翻转符号位后就可以直接用有符号比较
+        long[] ring = new long[points];
+        Integer[] order = new Integer[points];
+        for (int t = 0; t < targets.size(); t++) {
+            String name = targets.get(t).getName();
+            for (int v = 0; v < virtualNodes; v++) {
+                int index = t * virtualNodes + v;
+                ring[index] = hash(name, v) ^ Long.MIN_VALUE;
+                order[index] = index;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(ring[a], ring[b]));
+
+        ShardTarget[] table = new ShardTarget[1 << bucketBits];
+        int point = 0;
+        for (int b = 0; b < table.length; b++) {
+            long bucketStart = ((long) b << bucketShift) ^ Long.MIN_VALUE;
+            while (point < points && ring[order[point]] < bucketStart) {
+                point++;
+            }
+            table[b] = targets.get(order[point < points ? point : 0] / virtualNodes);
+        }
+        return table;
+    }
+
+    /**
+     * 虚拟节点位置：对 "库名.表名#序号" 做 64 位 FNV-1a 再打散，和JVM无关，所有节点算出来的环一致
+     */
+    private static long hash(String name, int virtualNode) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            h = (h ^ name.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ '#') * 0x100000001b3L;
+        h = (h ^ virtualNode) * 0x100000001b3L;
+        return mix64(h);
+    }
+
+    /**
+     * MurmurHash3 的 fmix64，把ID的每一位都扩散到高位
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
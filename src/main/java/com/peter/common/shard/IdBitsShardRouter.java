@@ -0,0 +1,71 @@
+package com.peter.common.shard;
+
+import com.peter.common.algorithm.SnowflakeLayout;
+
+import java.util.List;
+
+/**
+ * @ClassName IdBitsShardRouter
+ * @Description 按Snowflake ID里的数据中心id和机器id路由：两段拼成一个下标，直接查预先算好的路由表
+ * 下标和 SnowflakeIdDecoder 拆出来的字段对应：(dataCenterId << workerIdBits) | workerId
+ * 适合每个机器id（或数据中心）专门写一个分片的部署方式，同一个生成器出来的ID总是落在同一个分片
+ * @Author peter
+ * @Date 2026/10/18 18:40
+ * @Version 1.0
+ */
+public class IdBitsShardRouter implements ShardRouter {
+    /**
+     * table ：路由表，下标是 (dataCenterId << workerIdBits) | workerId
+     */
+    private final ShardTarget[] table;
+    private final int workerIdShift;
+    private final long nodeMask;
+
+    /**
+     * 按下标取模把所有 数据中心+机器 组合平均分到各个分片上
+     *
+     * @param layout  ID的位布局
+     * @param targets 物理分片
+     */
+    public IdBitsShardRouter(SnowflakeLayout layout, List<ShardTarget> targets) {
+        this(layout, spread(layout, targets));
+    }
+
+    /**
+     * 直接指定路由表，长度必须等于 2^(数据中心位数+机器位数)
+     *
+     * @param layout ID的位布局
+     * @param table  路由表
+     */
+    public IdBitsShardRouter(SnowflakeLayout layout, ShardTarget[] table) {
+        int nodeBits = layout.getDataCenterIdBits() + layout.getWorkerIdBits();
+        if (table.length != 1 << nodeBits) {
+            throw new IllegalArgumentException(
+                    String.format("routing table must have %d entries, got %d", 1 << nodeBits, table.length));
+        }
+        for (ShardTarget target : table) {
+            if (target == null) {
+                throw new IllegalArgumentException("routing table can't contain null");
+            }
+        }
+        this.table = table.clone();
+        this.workerIdShift = layout.getWorkerIdShift();
+        this.nodeMask = -1L ^ (-1L << nodeBits);
+    }
+
+    @Override
+    public ShardTarget route(long id) {
+        return table[(int) ((id >>> workerIdShift) & nodeMask)];
+    }
+
+    private static ShardTarget[] spread(SnowflakeLayout layout, List<ShardTarget> targets) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("targets can't be empty");
+        }
+        ShardTarget[] table = new ShardTarget[1 << (layout.getDataCenterIdBits() + layout.getWorkerIdBits())];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = targets.get(i % targets.size());
+        }
+        return table;
+    }
+}
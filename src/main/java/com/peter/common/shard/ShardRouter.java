@@ -0,0 +1,19 @@
+package com.peter.common.shard;
+
+/**
+ * @ClassName ShardRouter
+ * @Description 根据ID找到物理库和表，每个查询都会经过这里，实现不能在路由时创建对象
+ * @Author peter
+ * @Date 2026/10/18 18:32
+ * @Version 1.0
+ */
+public interface ShardRouter {
+
+    /**
+     * 路由
+     *
+     * @param id 主键ID
+     * @return 物理库和表
+     */
+    ShardTarget route(long id);
+}
@@ -0,0 +1,59 @@
+package com.peter.common.shard;
+
+/**
+ * @ClassName ShardTarget
+ * @Description 路由结果：物理库名和表名，路由器里预先创建好，路由时直接返回同一个对象
+ * @Author peter
+ * @Date 2026/10/18 18:30
+ * @Version 1.0
+ */
+public final class ShardTarget {
+    private final String database;
+    private final String table;
+    private final String name;
+
+    public ShardTarget(String database, String table) {
+        if (database == null || table == null) {
+            throw new IllegalArgumentException("database and table can't be null");
+        }
+        this.database = database;
+        this.table = table;
+        this.name = database + "." + table;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * 库名.表名，一致性哈希用它计算虚拟节点的位置，所以同名的目标在任何节点上都落在环上相同的位置
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShardTarget)) {
+            return false;
+        }
+        return name.equals(((ShardTarget) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,93 @@
+package com.peter.common.algorithm;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CachedSnowflakeCreateIdTest {
+
+    @Test
+    public void idsStayUniqueAcrossRefillsAndMisses() throws Exception {
+        final int threads = 8;
+        final int perThread = 50000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (final CachedSnowflakeCreateId cached = new CachedSnowflakeCreateId(new SnowflakeCreateId(1, 1, 0), 1024, 50)) {
+            assertEquals(1024, cached.getFillLevel());
+
+            @SuppressWarnings("unchecked")
+            Future<long[]>[] futures = new Future[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = pool.submit(() -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = cached.nextId();
+                    }
+                    return ids;
+                });
+            }
+            Set<Long> all = new HashSet<>(threads * perThread * 2);
+            for (Future<long[]> future : futures) {
+                for (long id : future.get(60, TimeUnit.SECONDS)) {
+                    assertTrue("duplicate id " + id, all.add(id));
+                }
+            }
+            assertEquals(threads * perThread, cached.getTakeCount());
+            assertTrue(cached.getMissCount() <= cached.getTakeCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void refillThreadDropsIdsOlderThanMaxAge() throws InterruptedException {
+        ManualSnowflakeClock clock = new ManualSnowflakeClock(1600000000000L);
+        SnowflakeCreateId generator = new SnowflakeCreateId(SnowflakeLayout.DEFAULT, clock, 0L, 1, 1, 0);
+        // 手动时钟不走，缓存要小于一毫秒的序列数，否则补充线程会在 tilNextMillis 里等下去
+        try (CachedSnowflakeCreateId cached = new CachedSnowflakeCreateId(generator, 1024, 50, 1000L)) {
+            assertEquals(1600000000000L, SnowflakeIdDecoder.DEFAULT.timestampOf(cached.nextId()));
+            // 没到丢弃年龄，照常用缓存里的
+            clock.advance(500L);
+            Thread.sleep(600);
+            assertEquals(1600000000000L, SnowflakeIdDecoder.DEFAULT.timestampOf(cached.nextId()));
+            assertEquals(0, cached.getExpiredCount());
+
+            // 低流量时缓存放了很久，补充线程把整段换成现在的时间
+            clock.advance(60000L);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cached.getExpiredCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            // 取走了2个，补充线程可能已经把空位补上了，一次丢掉缓存里剩下的全部旧ID
+            assertTrue(cached.getExpiredCount() >= 1022);
+            assertEquals(1600000060500L, SnowflakeIdDecoder.DEFAULT.timestampOf(cached.nextId()));
+        }
+    }
+
+    @Test
+    public void bufferSizeFollowsRateAndMaxAge() {
+        assertEquals(8192, CachedSnowflakeCreateId.DEFAULT_BUFFER_SIZE);
+        assertEquals(1024, CachedSnowflakeCreateId.bufferSizeFor(1000, 1000));
+        assertEquals(1 << 17, CachedSnowflakeCreateId.bufferSizeFor(100000, 1000));
+        assertEquals(64, CachedSnowflakeCreateId.bufferSizeFor(1, 1000));
+        assertEquals(1 << 20, CachedSnowflakeCreateId.bufferSizeFor(Integer.MAX_VALUE, 1000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMaxAgeShorterThanTwoTicks() {
+        SnowflakeLayout seconds = SnowflakeLayout.builder().timeUnit(TimeUnit.SECONDS).build();
+        new CachedSnowflakeCreateId(new SnowflakeCreateId(seconds, 1, 1, 0), 1024, 50, 1500L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPowerOfTwoBuffer() {
+        new CachedSnowflakeCreateId(new SnowflakeCreateId(1, 1, 0), 1000, 50);
+    }
+}
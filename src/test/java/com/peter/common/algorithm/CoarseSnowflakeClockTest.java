@@ -0,0 +1,38 @@
+package com.peter.common.algorithm;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CoarseSnowflakeClockTest {
+
+    @Test
+    public void cachedTimeAdvancesWithTheTicker() throws InterruptedException {
+        try (CoarseSnowflakeClock clock = new CoarseSnowflakeClock(1, TimeUnit.MILLISECONDS)) {
+            long before = clock.currentTimeMillis();
+            Thread.sleep(50);
+            long after = clock.currentTimeMillis();
+            assertTrue(after > before);
+            // 缓存的时间只会落后于系统时间，不会超前
+            assertTrue(after <= System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void closeStopsTheTicker() throws InterruptedException {
+        CoarseSnowflakeClock clock = new CoarseSnowflakeClock(1, TimeUnit.MILLISECONDS);
+        clock.close();
+        Thread.sleep(20);
+        long stopped = clock.currentTimeMillis();
+        Thread.sleep(50);
+        assertEquals(stopped, clock.currentTimeMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveInterval() {
+        new CoarseSnowflakeClock(0, TimeUnit.MICROSECONDS);
+    }
+}
@@ -0,0 +1,120 @@
+package com.peter.common.algorithm;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JdbcSegmentStoreTest {
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private JdbcDataSource h2;
+
+    @Before
+    public void createTable() throws SQLException {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:segment" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table id_segment (biz_tag varchar(8) not null primary key, max_id bigint not null)");
+        }
+    }
+
+    @Test
+    public void handsOutConsecutiveRanges() {
+        JdbcSegmentStore store = new JdbcSegmentStore(h2);
+        assertEquals(0L, store.allocate("order", 100));
+        assertEquals(100L, store.allocate("order", 50));
+        assertEquals(0L, store.allocate("user", 10));
+    }
+
+    @Test
+    public void firstInsertRaceFallsBackToUpdate() {
+        List<String> statements = new ArrayList<>();
+        // 本节点 update 没有命中、准备插入时，另一个节点抢先插入并提交了同一个业务标识
+        DataSource racing = recording(statements, "insert", () -> {
+            try (Connection other = h2.getConnection(); Statement statement = other.createStatement()) {
+                statement.executeUpdate("insert into id_segment (biz_tag, max_id) values ('order', 100)");
+            }
+        });
+        assertEquals(100L, new JdbcSegmentStore(racing).allocate("order", 10));
+        assertEquals(110L, new JdbcSegmentStore(h2).allocate("order", 1));
+        assertEquals(2, count(statements, "update"));
+        assertEquals(1, count(statements, "insert"));
+    }
+
+    @Test
+    public void otherInsertErrorsAreNotRetried() {
+        List<String> statements = new ArrayList<>();
+        try {
+            // biz_tag 超长，插入失败但不是主键冲突
+            new JdbcSegmentStore(recording(statements, null, null)).allocate("much-too-long", 10);
+            fail("insert error must be reported");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+            assertTrue(((SQLException) e.getCause()).getSQLState().startsWith("22"));
+        }
+        assertEquals(1, count(statements, "update"));
+        assertEquals(1, count(statements, "insert"));
+    }
+
+    private static int count(List<String> statements, String prefix) {
+        int n = 0;
+        for (String sql : statements) {
+            if (sql.startsWith(prefix)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    /**
+     * 记录每条 prepareStatement 的SQL，遇到以 hookPrefix 开头的语句时先执行 hook
+     */
+    private DataSource recording(List<String> statements, String hookPrefix, SqlAction hook) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                (dataSourceProxy, dataSourceMethod, dataSourceArgs) -> {
+                    Object result = invoke(dataSourceMethod, h2, dataSourceArgs);
+                    if (!"getConnection".equals(dataSourceMethod.getName())) {
+                        return result;
+                    }
+                    Connection connection = (Connection) result;
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                            (connectionProxy, method, args) -> {
+                                if ("prepareStatement".equals(method.getName())) {
+                                    String sql = (String) args[0];
+                                    statements.add(sql);
+                                    if (hookPrefix != null && sql.startsWith(hookPrefix)) {
+                                        hook.run();
+                                    }
+                                }
+                                return invoke(method, connection, args);
+                            });
+                });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.peter.common.algorithm;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LockFreeSnowflakeCreateIdTest {
+
+    private static final int THREADS = 32;
+    private static final int IDS_PER_THREAD = 20000;
+
+    @Test
+    public void layoutMatchesSynchronizedGenerator() {
+        LockFreeSnowflakeCreateId generator = new LockFreeSnowflakeCreateId(7, 19);
+        long id = generator.nextId();
+
+        assertEquals(7L, (id >>> 12) & 0x1F);
+        assertEquals(19L, (id >>> 17) & 0x1F);
+        assertTrue(id > 0);
+        long millis = (id >>> 22) + 1288834974657L;
+        assertTrue(Math.abs(System.currentTimeMillis() - millis) < 10000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWorkerIdOutOfRange() {
+        new LockFreeSnowflakeCreateId(32, 0);
+    }
+
+    @Test
+    public void uniqueAndMonotonicUnderContention() throws Exception {
+        final LockFreeSnowflakeCreateId generator = new LockFreeSnowflakeCreateId(3, 5);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            @SuppressWarnings("unchecked")
+            Future<long[]>[] futures = new Future[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                futures[t] = pool.submit(() -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    start.await();
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                });
+            }
+            start.countDown();
+
+            Set<Long> all = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get(60, TimeUnit.SECONDS);
+                for (int i = 0; i < ids.length; i++) {
+                    if (i > 0) {
+                        assertTrue("ids must be strictly increasing per thread", ids[i] > ids[i - 1]);
+                    }
+                    assertTrue("duplicate id " + ids[i], all.add(ids[i]));
+                }
+            }
+            assertEquals(THREADS * IDS_PER_THREAD, all.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void stripedGeneratorNeverCollides() throws Exception {
+        final StripedSnowflakeCreateId generator = new StripedSnowflakeCreateId(SnowflakeLayout.DEFAULT, 2, 8, 4);
+        assertEquals(11L, generator.getLastWorkerId());
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            @SuppressWarnings("unchecked")
+            Future<long[]>[] futures = new Future[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                futures[t] = pool.submit(() -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                });
+            }
+            Set<Long> all = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get(60, TimeUnit.SECONDS);
+                for (int i = 0; i < ids.length; i++) {
+                    long workerId = SnowflakeIdDecoder.DEFAULT.workerIdOf(ids[i]);
+                    assertTrue(workerId >= 8 && workerId <= 11);
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1]);
+                    }
+                    assertTrue("duplicate id " + ids[i], all.add(ids[i]));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stripedGeneratorRejectsWorkerRangeOverflow() {
+        new StripedSnowflakeCreateId(SnowflakeLayout.DEFAULT, 0, 30, 4);
+    }
+}
@@ -0,0 +1,90 @@
+package com.peter.common.algorithm;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class SegmentIdGeneratorTest {
+
+    @Test
+    public void fileStoreHandsOutConsecutiveRanges() throws Exception {
+        FileSegmentStore store = new FileSegmentStore(Files.createTempDirectory("segment"));
+        assertEquals(0L, store.allocate("order", 100));
+        assertEquals(100L, store.allocate("order", 50));
+        assertEquals(0L, store.allocate("user", 10));
+        assertEquals(150L, store.allocate("order", 1));
+    }
+
+    @Test
+    public void storesSharingADirectoryDoNotOverlap() throws Exception {
+        Path directory = Files.createTempDirectory("segment");
+        final FileSegmentStore first = new FileSegmentStore(directory);
+        final FileSegmentStore second = new FileSegmentStore(directory);
+        final int perThread = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            @SuppressWarnings("unchecked")
+            Future<long[]>[] futures = new Future[4];
+            for (int t = 0; t < futures.length; t++) {
+                final FileSegmentStore store = (t & 1) == 0 ? first : second;
+                futures[t] = pool.submit(() -> {
+                    long[] starts = new long[perThread];
+                    for (int i = 0; i < starts.length; i++) {
+                        starts[i] = store.allocate("order", 10);
+                    }
+                    return starts;
+                });
+            }
+            long[] all = new long[futures.length * perThread];
+            for (int t = 0; t < futures.length; t++) {
+                System.arraycopy(futures[t].get(60, TimeUnit.SECONDS), 0, all, t * perThread, perThread);
+            }
+            Arrays.sort(all);
+            for (int i = 0; i < all.length; i++) {
+                assertEquals(i * 10L, all[i]);
+            }
+            assertEquals("8000", new String(Files.readAllBytes(directory.resolve("order.segment")), "US-ASCII"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void idsAreDenseAndUniqueAcrossSegmentSwitches() throws Exception {
+        Path directory = Files.createTempDirectory("segment");
+        final int threads = 8;
+        final int perThread = 25000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (final SegmentIdGenerator generator = new SegmentIdGenerator(new FileSegmentStore(directory), "order", 1000)) {
+            @SuppressWarnings("unchecked")
+            Future<long[]>[] futures = new Future[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = pool.submit(() -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                });
+            }
+            long[] all = new long[threads * perThread];
+            for (int t = 0; t < threads; t++) {
+                System.arraycopy(futures[t].get(60, TimeUnit.SECONDS), 0, all, t * perThread, perThread);
+            }
+            Arrays.sort(all);
+            for (int i = 0; i < all.length; i++) {
+                assertEquals(i, all[i]);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.peter.common.algorithm;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SnowflakeCreateIdTest {
+
+    @Test
+    public void batchIdsAreOrderedAndContinueSingleIds() {
+        SnowflakeCreateId generator = new SnowflakeCreateId(1, 2, 0);
+        long before = generator.nextId();
+        long[] ids = generator.nextIds(20000);
+        long after = generator.nextId();
+
+        assertTrue(ids[0] > before);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue("ids must be strictly increasing", ids[i] > ids[i - 1]);
+            assertEquals(1L, (ids[i] >>> 12) & 0x1F);
+            assertEquals(2L, (ids[i] >>> 17) & 0x1F);
+        }
+        assertTrue(after > ids[ids.length - 1]);
+    }
+
+    @Test
+    public void fillWritesOnlyRequestedRange() {
+        SnowflakeCreateId generator = new SnowflakeCreateId(1, 2, 0);
+        long[] dst = new long[10];
+        generator.fill(dst, 3, 4);
+
+        assertEquals(0L, dst[2]);
+        assertTrue(dst[3] > 0 && dst[4] > dst[3] && dst[5] > dst[4] && dst[6] > dst[5]);
+        assertEquals(0L, dst[7]);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void fillRejectsBadRange() {
+        new SnowflakeCreateId(1, 2, 0).fill(new long[4], 2, 3);
+    }
+
+    @Test
+    public void secondsLayoutGivesLargerSequencePerTick() {
+        SnowflakeLayout layout = SnowflakeLayout.builder()
+                .timestampBits(32).dataCenterIdBits(2).workerIdBits(5).sequenceBits(24)
+                .timeUnit(TimeUnit.SECONDS)
+                .build();
+        SnowflakeCreateId generator = new SnowflakeCreateId(layout, 9, 3, 0);
+        long[] ids = generator.nextIds(100000);
+
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        long id = ids[ids.length - 1];
+        assertEquals(9L, (id >>> layout.getWorkerIdShift()) & layout.getMaxWorkerId());
+        assertEquals(3L, (id >>> layout.getDataCenterIdShift()) & layout.getMaxDataCenterId());
+        long millis = layout.toMillis(id >>> layout.getTimestampLeftShift());
+        assertTrue(Math.abs(System.currentTimeMillis() - millis) < 10000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void layoutMustUseSixtyThreeBits() {
+        SnowflakeLayout.builder().sequenceBits(13).build();
+    }
+
+    @Test
+    public void decoderRecoversFieldsAndBoundsTime() {
+        long before = System.currentTimeMillis();
+        long id = new SnowflakeCreateId(17, 30, 0).nextId();
+        long after = System.currentTimeMillis();
+        SnowflakeIdDecoder decoder = SnowflakeIdDecoder.DEFAULT;
+
+        assertEquals(17L, decoder.workerIdOf(id));
+        assertEquals(30L, decoder.dataCenterIdOf(id));
+        assertEquals(0L, decoder.sequenceOf(id));
+        long millis = decoder.timestampOf(id);
+        assertTrue(millis >= before && millis <= after);
+        assertTrue(decoder.minIdFor(millis) <= id && id <= decoder.maxIdFor(millis));
+        assertTrue(decoder.maxIdFor(millis - 1) < id);
+        assertTrue(decoder.minIdFor(millis + 1) > id);
+        assertEquals(0L, decoder.minIdFor(0L));
+    }
+
+    @Test
+    public void maxIdBeforeEpochIsBelowEveryId() {
+        SnowflakeIdDecoder decoder = SnowflakeIdDecoder.DEFAULT;
+        long epoch = decoder.timestampOf(0L);
+        assertEquals(-1L, decoder.maxIdFor(epoch - 1));
+        assertEquals(-1L, decoder.maxIdFor(0L));
+        assertTrue(decoder.maxIdFor(epoch - 1) < decoder.minIdFor(epoch));
+        assertEquals(~(-1L << 22), decoder.maxIdFor(epoch));
+
+        SnowflakeIdDecoder seconds = new SnowflakeIdDecoder(
+                SnowflakeLayout.builder().timeUnit(TimeUnit.SECONDS).build());
+        assertEquals(-1L, seconds.maxIdFor(seconds.timestampOf(0L) - 1));
+    }
+
+    @Test
+    public void batchMatchesSingleCallsOnSameClock() {
+        ManualSnowflakeClock singleClock = new ManualSnowflakeClock(1500000000000L);
+        ManualSnowflakeClock batchClock = new ManualSnowflakeClock(1500000000000L);
+        SnowflakeCreateId single = new SnowflakeCreateId(SnowflakeLayout.DEFAULT, singleClock, 0L, 4, 4, 0);
+        SnowflakeCreateId batch = new SnowflakeCreateId(SnowflakeLayout.DEFAULT, batchClock, 0L, 4, 4, 0);
+
+        long[] expected = new long[3000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = single.nextId();
+        }
+        assertArrayEquals(expected, batch.nextIds(expected.length));
+    }
+
+    @Test
+    public void smallClockRollbackIsAbsorbed() {
+        ManualSnowflakeClock clock = new ManualSnowflakeClock(1500000000000L);
+        SnowflakeCreateId generator = new SnowflakeCreateId(SnowflakeLayout.DEFAULT, clock, 5L, 1, 1, 0);
+        long first = generator.nextId();
+
+        clock.advance(-5);
+        long second = generator.nextId();
+        assertTrue(second > first);
+        assertEquals(SnowflakeIdDecoder.DEFAULT.timestampOf(first), SnowflakeIdDecoder.DEFAULT.timestampOf(second));
+
+        clock.advance(-1);
+        try {
+            generator.nextId();
+            fail("rollback beyond the tolerance must be rejected");
+        } catch (RuntimeException expectedException) {
+            // expected
+        }
+
+        clock.advance(7);
+        assertTrue(generator.nextId() > second);
+    }
+
+    @Test
+    public void subSecondToleranceRoundsUpOnSecondLayout() {
+        SnowflakeLayout seconds = SnowflakeLayout.builder().timeUnit(TimeUnit.SECONDS).build();
+        ManualSnowflakeClock clock = new ManualSnowflakeClock(1500000001000L);
+        SnowflakeCreateId generator = new SnowflakeCreateId(seconds, clock, 500L, 1, 1, 0);
+        long first = generator.nextId();
+
+        // 回拨 300ms 落到上一秒，容忍 500ms 时应当吸收而不是拒绝
+        clock.advance(-300);
+        assertTrue(generator.nextId() > first);
+
+        LockFreeSnowflakeCreateId lockFree = new LockFreeSnowflakeCreateId(seconds, clock, 500L, 1, 1);
+        clock.advance(300);
+        long lockFreeFirst = lockFree.nextId();
+        clock.advance(-300);
+        assertTrue(lockFree.nextId() > lockFreeFirst);
+    }
+
+    @Test
+    public void rollbackIsReportedInMillisecondsOnSecondLayout() {
+        SnowflakeLayout seconds = SnowflakeLayout.builder().timeUnit(TimeUnit.SECONDS).build();
+        ManualSnowflakeClock clock = new ManualSnowflakeClock(1500000002000L);
+        IdGenerator[] generators = {
+                new SnowflakeCreateId(seconds, clock, 0L, 1, 1, 0),
+                new LockFreeSnowflakeCreateId(seconds, clock, 0L, 1, 1)};
+        for (IdGenerator generator : generators) {
+            clock.set(1500000002000L);
+            generator.nextId();
+            clock.advance(-2000);
+            try {
+                generator.nextId();
+                fail("rollback must be rejected");
+            } catch (RuntimeException e) {
+                assertEquals("clock moved backwards.  Refusing to generate id for 2000 milliseconds", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void lockFreeGeneratorAbsorbsSmallRollback() {
+        ManualSnowflakeClock clock = new ManualSnowflakeClock(1500000000000L);
+        LockFreeSnowflakeCreateId generator =
+                new LockFreeSnowflakeCreateId(SnowflakeLayout.DEFAULT, clock, 3L, 1, 1);
+        long first = generator.nextId();
+        clock.advance(-3);
+        assertTrue(generator.nextId() > first);
+    }
+}
@@ -0,0 +1,57 @@
+package com.peter.common.algorithm;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnowflakeIdCodecTest {
+
+    @Test
+    public void roundTripsAndKeepsSortOrder() {
+        Random random = new Random(7);
+        char[] chars = new char[SnowflakeIdCodec.ENCODED_LENGTH];
+        byte[] bytes = new byte[SnowflakeIdCodec.ENCODED_LENGTH + 2];
+        String previous = SnowflakeIdCodec.toString(0L);
+        long previousId = 0L;
+        for (int i = 0; i < 100000; i++) {
+            long id = random.nextLong() >>> 1;
+            SnowflakeIdCodec.encode(id, chars, 0);
+            SnowflakeIdCodec.encode(id, bytes, 2);
+            String text = SnowflakeIdCodec.encode(id, new StringBuilder()).toString();
+
+            assertEquals(id, SnowflakeIdCodec.decode(chars, 0));
+            assertEquals(id, SnowflakeIdCodec.decode(bytes, 2));
+            assertEquals(id, SnowflakeIdCodec.decode(text));
+            assertEquals(id, SnowflakeIdCodec.decode(text.toLowerCase()));
+            assertEquals(Long.signum(Long.compare(id, previousId)), Integer.signum(text.compareTo(previous)));
+            previous = text;
+            previousId = id;
+        }
+        assertEquals("7ZZZZZZZZZZZZ", SnowflakeIdCodec.toString(Long.MAX_VALUE));
+        assertEquals(-1L, SnowflakeIdCodec.decode("FZZZZZZZZZZZZ"));
+    }
+
+    @Test
+    public void generatedIdsSortByTime() {
+        SnowflakeCreateId generator = new SnowflakeCreateId(1, 1, 0);
+        String previous = SnowflakeIdCodec.toString(generator.nextId());
+        for (int i = 0; i < 10000; i++) {
+            String current = SnowflakeIdCodec.toString(generator.nextId());
+            assertTrue(current.compareTo(previous) > 0);
+            previous = current;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOverflowingFirstCharacter() {
+        SnowflakeIdCodec.decode("G000000000000");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsIllegalCharacter() {
+        SnowflakeIdCodec.decode("00000000000U0");
+    }
+}
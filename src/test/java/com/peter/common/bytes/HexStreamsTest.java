@@ -0,0 +1,86 @@
+package com.peter.common.bytes;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HexStreamsTest {
+
+    @Test
+    public void streamsRoundTripAcrossChunkBoundaries() throws IOException {
+        byte[] data = new byte[100003];
+        new Random(3).nextBytes(data);
+
+        ByteArrayOutputStream hex = new ByteArrayOutputStream();
+        try (OutputStream out = new HexEncodingOutputStream(hex, 1000)) {
+            out.write(data, 0, 10);
+            out.write(data[10]);
+            out.write(data, 11, data.length - 11);
+        }
+        assertEquals(HexUtils.bytesToHexString(data), new String(hex.toByteArray(), StandardCharsets.US_ASCII));
+
+        // 每次只给奇数个字符，检查跨块的半个字节能正确拼起来
+        InputStream trickle = new FilterInputStream(new ByteArrayInputStream(hex.toByteArray())) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (InputStream in = new HexDecodingInputStream(trickle, 333)) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                decoded.write(buffer, 0, n);
+            }
+        }
+        assertArrayEquals(data, decoded.toByteArray());
+    }
+
+    @Test
+    public void channelsRoundTrip() throws IOException {
+        byte[] data = new byte[20000];
+        new Random(4).nextBytes(data);
+
+        ByteArrayOutputStream hex = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = HexChannels.encoding(Channels.newChannel(hex))) {
+            channel.write(ByteBuffer.wrap(data));
+        }
+        ByteBuffer decoded = ByteBuffer.allocate(data.length);
+        try (ReadableByteChannel channel = HexChannels.decoding(
+                Channels.newChannel(new ByteArrayInputStream(hex.toByteArray())))) {
+            while (channel.read(decoded) >= 0 && decoded.hasRemaining()) {
+                // keep reading
+            }
+        }
+        assertArrayEquals(data, decoded.array());
+    }
+
+    @Test(expected = EOFException.class)
+    public void oddLengthIsRejected() throws IOException {
+        InputStream in = new HexDecodingInputStream(new ByteArrayInputStream("ABC".getBytes(StandardCharsets.US_ASCII)));
+        while (in.read() >= 0) {
+            // drain
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidCharacterIsRejected() throws IOException {
+        new HexDecodingInputStream(new ByteArrayInputStream("ZZ".getBytes(StandardCharsets.US_ASCII))).read();
+    }
+}
@@ -0,0 +1,62 @@
+package com.peter.common.bytes;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HexUtilsTest {
+
+    @Test
+    public void encodesLikeBeforeAndRoundTrips() {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        String hex = HexUtils.bytesToHexString(bytes);
+        assertEquals("000102", hex.substring(0, 6));
+        assertEquals("FDFEFF", hex.substring(hex.length() - 6));
+        assertArrayEquals(bytes, HexUtils.hexStringToByte(hex));
+        assertArrayEquals(bytes, HexUtils.hexStringToByte(hex.toLowerCase()));
+
+        assertEquals("616C6B", HexUtils.str2HexStr("alk"));
+        assertEquals("alk", HexUtils.hexStr2Str("616c6B"));
+    }
+
+    @Test
+    public void encodesAndDecodesIntoCallerBuffers() {
+        byte[] bytes = new byte[100];
+        new Random(1).nextBytes(bytes);
+        char[] chars = new char[210];
+        assertEquals(105, HexUtils.encode(bytes, 10, 50, chars, 5, true));
+        String hex = new String(chars, 5, 100);
+        assertEquals(hex.toUpperCase(), HexUtils.bytesToHexString(Arrays.copyOfRange(bytes, 10, 60)));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(50);
+        HexUtils.decode(hex, 0, hex.length(), buffer);
+        buffer.flip();
+        byte[] decoded = new byte[50];
+        buffer.get(decoded);
+        assertArrayEquals(Arrays.copyOfRange(bytes, 10, 60), decoded);
+
+        byte[] ascii = new byte[100];
+        HexUtils.encode(bytes, 10, 50, ascii, 0);
+        byte[] fromAscii = new byte[50];
+        HexUtils.decode(ascii, 0, ascii.length, fromAscii, 0);
+        assertArrayEquals(decoded, fromAscii);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidCharacter() {
+        HexUtils.hexStringToByte("0G");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOddLength() {
+        HexUtils.hexStringToByte("ABC");
+    }
+}
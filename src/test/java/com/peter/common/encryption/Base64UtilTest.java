@@ -0,0 +1,206 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class Base64UtilTest {
+
+    @Test
+    public void matchesJdkEncodersForEveryAlphabetAndLength() {
+        Random random = new Random(5);
+        for (int len = 0; len < 300; len++) {
+            byte[] data = new byte[len];
+            random.nextBytes(data);
+            check(data, Base64Util.Alphabet.STANDARD, Base64.getEncoder().encode(data));
+            check(data, Base64Util.Alphabet.URL_SAFE, Base64.getUrlEncoder().encode(data));
+            check(data, Base64Util.Alphabet.URL_SAFE_NO_PADDING, Base64.getUrlEncoder().withoutPadding().encode(data));
+            check(data, Base64Util.Alphabet.MIME, Base64.getMimeEncoder().encode(data));
+        }
+    }
+
+    private static void check(byte[] data, Base64Util.Alphabet alphabet, byte[] expected) {
+        assertEquals(expected.length, Base64Util.encodedLength(data.length, alphabet));
+        assertArrayEquals(expected, Base64Util.encode(data, alphabet));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+        Base64Util.encode(ByteBuffer.wrap(data), direct, alphabet);
+        direct.flip();
+        byte[] fromDirect = new byte[direct.remaining()];
+        direct.get(fromDirect);
+        assertArrayEquals(expected, fromDirect);
+
+        assertArrayEquals(data, Base64Util.decode(expected));
+        assertArrayEquals(data, Base64Util.decode(new String(expected, StandardCharsets.US_ASCII)));
+        ByteBuffer decoded = ByteBuffer.allocateDirect(data.length);
+        Base64Util.decode(ByteBuffer.wrap(expected), decoded);
+        assertEquals(data.length, decoded.position());
+    }
+
+    @Test
+    public void largeDirectBufferKeepsMimeLineBreaks() {
+        byte[] data = new byte[100000];
+        new Random(6).nextBytes(data);
+        ByteBuffer src = ByteBuffer.allocateDirect(data.length);
+        src.put(data).flip();
+        ByteBuffer dst = ByteBuffer.allocateDirect(Base64Util.encodedLength(data.length, Base64Util.Alphabet.MIME));
+        Base64Util.encode(src, dst, Base64Util.Alphabet.MIME);
+        dst.flip();
+        byte[] encoded = new byte[dst.remaining()];
+        dst.get(encoded);
+        assertArrayEquals(Base64.getMimeEncoder().encode(data), encoded);
+    }
+
+    @Test
+    public void encodesIntoCallerBufferAtOffset() {
+        byte[] data = "hello world".getBytes(StandardCharsets.US_ASCII);
+        byte[] dst = new byte[4 + Base64Util.encodedLength(5, Base64Util.Alphabet.STANDARD)];
+        int end = Base64Util.encode(data, 6, 5, dst, 4, Base64Util.Alphabet.STANDARD);
+        assertEquals(dst.length, end);
+        assertEquals("d29ybGQ=", new String(dst, 4, end - 4, StandardCharsets.US_ASCII));
+
+        byte[] decoded = new byte[Base64Util.decodedLength(dst, 4, end - 4)];
+        Base64Util.decode(dst, 4, end - 4, decoded, 0);
+        assertEquals("world", new String(decoded, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void streamsRoundTripUrlSafe() throws IOException {
+        byte[] data = new byte[50000];
+        new Random(8).nextBytes(data);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (OutputStream out = Base64Util.wrap(encoded, Base64Util.Alphabet.URL_SAFE_NO_PADDING)) {
+            out.write(data);
+        }
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (InputStream in = Base64Util.wrap(new ByteArrayInputStream(encoded.toByteArray()))) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                decoded.write(buffer, 0, n);
+            }
+        }
+        assertArrayEquals(data, decoded.toByteArray());
+    }
+
+    @Test
+    public void stringHelpersKeepTheirBehaviour() {
+        String encoded = Base64Util.encodeData("我是中文");
+        assertEquals("5oiR5piv5Lit5paH", encoded);
+        assertEquals("我是中文", Base64Util.decodeData(encoded));
+        assertNull(Base64Util.decodeData(null));
+        // 和原来的 commons-codec 一样宽松：跳过不认识的字符，不返回null
+        assertEquals("", Base64Util.decodeData("***"));
+        assertEquals("我是中文", Base64Util.decodeData("5oiR*5piv 5Lit#5paH"));
+    }
+
+    @Test
+    public void decodesMixedAlphabetsAndWhitespace() {
+        byte[] data = new byte[]{(byte) 0xFB, (byte) 0xFF, (byte) 0xBF, 1};
+        assertArrayEquals(data, Base64Util.decode("+/-_\r\nAQ=="));
+        assertArrayEquals(data, Base64Util.decode("+/-_AQ==ignored".getBytes(StandardCharsets.US_ASCII)));
+        try {
+            Base64Util.decode("AB*D");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("illegal base64 character '*' at position 2", e.getMessage());
+        }
+    }
+
+    @Test
+    public void decodeChecksDirectBufferBeforeWriting() {
+        ByteBuffer dst = ByteBuffer.allocateDirect(4);
+        ByteBuffer src = ByteBuffer.wrap("aGVsbG8=".getBytes(StandardCharsets.US_ASCII));
+        try {
+            Base64Util.decode(src, dst);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, dst.position());
+            assertEquals(0, src.position());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void streamRejectsIllegalCharactersLikeDecode() throws IOException {
+        try (InputStream in = Base64Util.wrap(new ByteArrayInputStream("aGVs*bG8=".getBytes(StandardCharsets.US_ASCII)))) {
+            while (in.read() >= 0) {
+                // 读到非法字符时抛异常
+            }
+        }
+    }
+
+    @Test
+    public void callerBufferPathsWriteOnlyTheirRange() {
+        Random random = new Random(14);
+        for (Base64Util.Alphabet alphabet : Base64Util.Alphabet.values()) {
+            // 684 是一段的长度，覆盖整段、整段加尾巴和只有尾巴三种情况
+            for (int len : new int[]{0, 1, 2, 3, 56, 57, 58, 100, 683, 684, 685, 1368, 1370, 5000}) {
+                byte[] data = new byte[len + 5];
+                random.nextBytes(data);
+                byte[] expected = Base64Util.encode(Arrays.copyOfRange(data, 3, 3 + len), alphabet);
+
+                byte[] encoded = filled(expected.length + 9);
+                assertEquals(4 + expected.length, Base64Util.encode(data, 3, len, encoded, 4, alphabet));
+                assertArrayEquals(expected, Arrays.copyOfRange(encoded, 4, 4 + expected.length));
+                assertUntouched(encoded, 4, 4 + expected.length);
+
+                byte[] decoded = filled(len + 9);
+                assertEquals(4 + len, Base64Util.decode(encoded, 4, expected.length, decoded, 4));
+                assertArrayEquals(Arrays.copyOfRange(data, 3, 3 + len), Arrays.copyOfRange(decoded, 4, 4 + len));
+                assertUntouched(decoded, 4, 4 + len);
+
+                // 直接缓冲区：只写 [position, position + 编码长度)，前后保持原样
+                ByteBuffer direct = ByteBuffer.allocateDirect(expected.length + 9);
+                direct.put(filled(expected.length + 9)).position(4);
+                Base64Util.encode(ByteBuffer.wrap(data, 3, len), direct, alphabet);
+                assertEquals(4 + expected.length, direct.position());
+                byte[] fromDirect = new byte[direct.capacity()];
+                direct.clear();
+                direct.get(fromDirect);
+                assertArrayEquals(expected, Arrays.copyOfRange(fromDirect, 4, 4 + expected.length));
+                assertUntouched(fromDirect, 4, 4 + expected.length);
+
+                ByteBuffer decodedDirect = ByteBuffer.allocateDirect(len + 9);
+                decodedDirect.put(filled(len + 9)).position(4);
+                ByteBuffer source = ByteBuffer.allocateDirect(expected.length);
+                source.put(expected).flip();
+                Base64Util.decode(source, decodedDirect);
+                assertEquals(4 + len, decodedDirect.position());
+                assertEquals(source.limit(), source.position());
+                byte[] fromDecodedDirect = new byte[decodedDirect.capacity()];
+                decodedDirect.clear();
+                decodedDirect.get(fromDecodedDirect);
+                assertArrayEquals(Arrays.copyOfRange(data, 3, 3 + len), Arrays.copyOfRange(fromDecodedDirect, 4, 4 + len));
+                assertUntouched(fromDecodedDirect, 4, 4 + len);
+            }
+        }
+    }
+
+    private static byte[] filled(int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) 0x5A);
+        return bytes;
+    }
+
+    private static void assertUntouched(byte[] bytes, int from, int to) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (i < from || i >= to) {
+                assertEquals("byte " + i + " outside [" + from + ", " + to + ")", 0x5A, bytes[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DigestUtilTest {
+
+    /**
+     * FIPS 180-2 中 "abc" 的 SHA-256
+     */
+    private static final String ABC_SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    private static final byte[] ABC = "abc".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void matchesKnownVector() throws Exception {
+        assertEquals(ABC_SHA256, DigestUtil.sha256Hex("abc"));
+        char[] hex = new char[2 + 64];
+        assertEquals(hex.length, DigestUtil.digestHex(DigestUtil.SHA256, ABC, hex, 2));
+        assertEquals(ABC_SHA256, new String(hex, 2, 64));
+        assertArrayEquals(DigestUtil.digest(DigestUtil.SHA256, ABC),
+                DigestUtil.digest(DigestUtil.SHA256, new ByteArrayInputStream(ABC)));
+    }
+
+    @Test
+    public void digestsDirectBuffer() {
+        ByteBuffer direct = ByteBuffer.allocateDirect(ABC.length);
+        direct.put(ABC).flip();
+        byte[] dst = new byte[4 + 32];
+        assertEquals(32, DigestUtil.digest(DigestUtil.SHA256, direct, dst, 4));
+        assertEquals(direct.limit(), direct.position());
+        byte[] expected = DigestUtil.digest(DigestUtil.SHA256, ABC);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], dst[4 + i]);
+        }
+    }
+
+    @Test
+    public void shortDestinationIsRejectedAndDigestIsReset() {
+        try {
+            DigestUtil.digest(DigestUtil.SHA256, ByteBuffer.wrap(ABC), new byte[31], 0);
+            fail("a 31-byte buffer can't hold a SHA-256 digest");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        // 失败时缓存的实例已经 reset，不会把 "abc" 带进下一次摘要
+        assertEquals(ABC_SHA256, DigestUtil.sha256Hex("abc"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownAlgorithmRejected() {
+        DigestUtil.digest("SHA-NOPE", ABC);
+    }
+}
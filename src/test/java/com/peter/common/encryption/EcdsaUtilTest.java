@@ -0,0 +1,97 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.SignatureException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EcdsaUtilTest {
+
+    @Test
+    public void signsAndVerifiesStrings() throws Exception {
+        KeyPair keyPair = EcdsaUtil.getKeyPair();
+        String publicKey = Base64Util.encodeToString(keyPair.getPublic().getEncoded());
+        String privateKey = Base64Util.encodeToString(keyPair.getPrivate().getEncoded());
+        String data = "201906251609230000";
+
+        String sign = EcdsaUtil.sign(data, EcdsaUtil.getPrivateKey(privateKey));
+        PublicKey parsed = EcdsaUtil.getPublicKey(publicKey);
+        assertSame(parsed, EcdsaUtil.getPublicKey(publicKey));
+        assertTrue(EcdsaUtil.verify(data, parsed, sign));
+        assertFalse(EcdsaUtil.verify(data + "1", parsed, sign));
+    }
+
+    @Test
+    public void supportsP1363Signatures() throws Exception {
+        KeyPair keyPair = EcdsaUtil.getKeyPair();
+        byte[] data = "payload".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 20; i++) {
+            byte[] p1363 = EcdsaUtil.sign(data, keyPair.getPrivate(), EcdsaUtil.SignatureFormat.P1363);
+            assertEquals(64, p1363.length);
+            assertTrue(EcdsaUtil.verify(data, keyPair.getPublic(), p1363, EcdsaUtil.SignatureFormat.P1363));
+            byte[] der = EcdsaUtil.p1363ToDer(p1363);
+            assertTrue(EcdsaUtil.verify(data, keyPair.getPublic(), der, EcdsaUtil.SignatureFormat.DER));
+            assertArrayEquals(p1363, EcdsaUtil.derToP1363(der, 32));
+        }
+    }
+
+    @Test
+    public void convertsEdgeCaseIntegers() {
+        Random random = new Random(24);
+        for (int i = 0; i < 500; i++) {
+            byte[] p1363 = new byte[64];
+            random.nextBytes(p1363);
+            // 覆盖最高位为1（需要补0）和前导0（需要去掉）的情况
+            if (i % 3 == 0) {
+                p1363[0] = 0;
+                p1363[1] = (byte) 0x80;
+            }
+            if (i % 5 == 0) {
+                p1363[32] = (byte) 0xFF;
+            }
+            byte[] der = EcdsaUtil.p1363ToDer(p1363);
+            assertEquals(0x30, der[0]);
+            assertArrayEquals(p1363, EcdsaUtil.derToP1363(der, 32));
+        }
+        byte[] zero = new byte[64];
+        assertArrayEquals(new byte[]{0x30, 6, 2, 1, 0, 2, 1, 0}, EcdsaUtil.p1363ToDer(zero));
+        assertArrayEquals(zero, EcdsaUtil.derToP1363(EcdsaUtil.p1363ToDer(zero), 32));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedDer() {
+        EcdsaUtil.derToP1363(new byte[]{0x30, 6, 2, 1, 1, 2, 2, 1}, 32);
+    }
+
+    @Test
+    public void p1363VerifyRejectsWrongLength() throws Exception {
+        KeyPair keyPair = EcdsaUtil.getKeyPair();
+        byte[] data = "payload".getBytes(StandardCharsets.UTF_8);
+        byte[] p1363 = EcdsaUtil.sign(data, keyPair.getPrivate(), EcdsaUtil.SignatureFormat.P1363);
+        // 按两半拆开时能拆出合法的 r、s，长度不对也必须拒绝
+        for (byte[] sign : new byte[][]{Arrays.copyOf(p1363, 62), Arrays.copyOf(p1363, 66), new byte[0]}) {
+            try {
+                EcdsaUtil.verify(data, keyPair.getPublic(), sign, EcdsaUtil.SignatureFormat.P1363);
+                fail("length " + sign.length + " must be rejected");
+            } catch (SignatureException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeDerInteger() {
+        EcdsaUtil.derToP1363(new byte[]{0x30, 6, 2, 1, (byte) 0x80, 2, 1, 1}, 32);
+    }
+}
@@ -0,0 +1,82 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HmacServiceTest {
+
+    /**
+     * RFC 4231 test case 2
+     */
+    private static final byte[] KEY = "Jefe".getBytes(StandardCharsets.US_ASCII);
+    private static final String DATA = "what do ya want for nothing?";
+    private static final String EXPECTED = "5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843";
+
+    @Test
+    public void macMatchesRfcVector() {
+        HmacService hmac = new HmacService(KEY);
+        assertEquals(32, hmac.getMacLength());
+        assertEquals(EXPECTED, hmac.macHex(DATA));
+        // 线程缓存的 Mac 在 doFinal 后要能直接复用
+        assertEquals(EXPECTED, hmac.macHex(DATA));
+    }
+
+    @Test
+    public void streamingInputsAgree() throws Exception {
+        HmacService hmac = new HmacService(KEY);
+        byte[] data = DATA.getBytes(StandardCharsets.UTF_8);
+        byte[] expected = hmac.mac(data);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).flip();
+        byte[] dst = new byte[40];
+        assertEquals(36, hmac.mac(direct, dst, 4));
+        assertEquals(0, direct.remaining());
+        byte[] fromBuffer = new byte[32];
+        System.arraycopy(dst, 4, fromBuffer, 0, 32);
+        assertArrayEquals(expected, fromBuffer);
+
+        assertArrayEquals(expected, hmac.mac(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    public void base64IntoCallerBuffer() {
+        HmacService hmac = new HmacService(KEY);
+        byte[] data = DATA.getBytes(StandardCharsets.UTF_8);
+        int length = Base64Util.encodedLength(hmac.getMacLength(), Base64Util.Alphabet.URL_SAFE_NO_PADDING);
+        byte[] dst = new byte[length];
+        assertEquals(length, hmac.macBase64(data, dst, 0, Base64Util.Alphabet.URL_SAFE_NO_PADDING));
+        assertArrayEquals(hmac.mac(data), Base64Util.decode(new String(dst, StandardCharsets.US_ASCII)));
+        assertArrayEquals(hmac.mac(data), Base64Util.decode(hmac.macBase64(DATA)));
+    }
+
+    @Test
+    public void verify() {
+        HmacService hmac = new HmacService(KEY);
+        byte[] data = DATA.getBytes(StandardCharsets.UTF_8);
+        byte[] mac = hmac.mac(data);
+        assertTrue(hmac.verify(data, mac));
+        mac[31] ^= 1;
+        assertFalse(hmac.verify(data, mac));
+        assertFalse(hmac.verify(data, new byte[16]));
+        assertFalse(new HmacService("other".getBytes(StandardCharsets.US_ASCII)).verify(data, hmac.mac(data)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shortBufferRejected() {
+        new HmacService(KEY).mac(ByteBuffer.wrap(new byte[1]), new byte[16], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownAlgorithmRejected() {
+        new HmacService("HmacNope", KEY);
+    }
+}
@@ -0,0 +1,62 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RsaBatchSignerTest {
+
+    @Test
+    public void verifiesBatchInParallel() throws Exception {
+        KeyPair keyPair = RsaUtil.getKeyPair();
+        KeyPair other = RsaUtil.getKeyPair();
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            payloads.add(("message-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        try (RsaBatchSigner signer = new RsaBatchSigner(4, 8)) {
+            List<byte[]> signatures = signer.signAll(SignedMessage.DEFAULT_ALGORITHM, keyPair.getPrivate(), payloads);
+            List<SignedMessage> messages = new ArrayList<>();
+            BitSet expected = new BitSet();
+            for (int i = 0; i < payloads.size(); i++) {
+                byte[] signature = signatures.get(i);
+                if (i % 7 == 0) {
+                    messages.add(new SignedMessage(other.getPublic(), payloads.get(i), signature));
+                } else if (i % 11 == 0) {
+                    // 长度不对的签名按不通过处理
+                    messages.add(new SignedMessage(keyPair.getPublic(), payloads.get(i), new byte[3]));
+                } else {
+                    messages.add(new SignedMessage(keyPair.getPublic(), payloads.get(i), signature));
+                    expected.set(i);
+                }
+            }
+            assertEquals(expected, signer.verifyAll(messages));
+            assertEquals(expected, signer.verifyAllAsync(messages).get());
+            assertEquals(expected, RsaUtil.verifyAll(messages));
+        }
+    }
+
+    @Test
+    public void asyncSignFailureCompletesExceptionally() throws Exception {
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            payloads.add(new byte[]{(byte) i});
+        }
+        try (RsaBatchSigner signer = new RsaBatchSigner(2, 4)) {
+            signer.signAllAsync("NoSuchAlgorithmWithRSA", RsaUtil.getKeyPair().getPrivate(), payloads).join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof NoSuchAlgorithmException);
+        }
+    }
+}
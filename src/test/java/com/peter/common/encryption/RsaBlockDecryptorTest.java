@@ -0,0 +1,49 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import javax.crypto.BadPaddingException;
+import java.security.KeyPair;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RsaBlockDecryptorTest {
+
+    @Test
+    public void parallelOutputMatchesSequential() throws Exception {
+        KeyPair keyPair = RsaUtil.getKeyPair();
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(17);
+        for (int i = 0; i < 6000; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        String data = sb.toString();
+        byte[] sealed = Base64Util.decode(RsaUtil.encrypt(data, keyPair.getPublic()));
+        assertEquals(52, sealed.length / 128);
+
+        try (RsaBlockDecryptor sequential = new RsaBlockDecryptor(4, Integer.MAX_VALUE);
+             RsaBlockDecryptor parallel = new RsaBlockDecryptor(4, 2)) {
+            byte[] expected = sequential.decrypt(keyPair.getPrivate(), sealed, 128);
+            assertArrayEquals(data.getBytes("UTF-8"), expected);
+            for (int i = 0; i < 3; i++) {
+                assertArrayEquals(expected, parallel.decrypt(keyPair.getPrivate(), sealed, 128));
+            }
+            assertEquals(data, RsaUtil.decrypt(Base64Util.encodeToString(sealed), keyPair.getPrivate(), parallel));
+        }
+    }
+
+    @Test
+    public void parallelFailureSurfacesAsSecurityException() throws Exception {
+        KeyPair keyPair = RsaUtil.getKeyPair();
+        byte[] sealed = Base64Util.decode(RsaUtil.encrypt(new String(new char[2000]).replace('\0', 'x'), keyPair.getPublic()));
+        sealed[5 * 128 + 3] ^= 1;
+        try (RsaBlockDecryptor parallel = new RsaBlockDecryptor(4, 2)) {
+            parallel.decrypt(keyPair.getPrivate(), sealed, 128);
+            fail();
+        } catch (BadPaddingException expected) {
+        }
+    }
+}
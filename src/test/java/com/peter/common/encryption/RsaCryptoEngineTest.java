@@ -0,0 +1,75 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import javax.crypto.Cipher;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RsaCryptoEngineTest {
+
+    private final RsaCryptoEngine engine = new RsaCryptoEngine();
+
+    @Test
+    public void reusesInstancesPerThread() throws Exception {
+        KeyPair keyPair = RsaUtil.getKeyPair();
+        Cipher first = engine.cipher("RSA", Cipher.ENCRYPT_MODE, keyPair.getPublic());
+        assertSame(first, engine.cipher("RSA", Cipher.ENCRYPT_MODE, keyPair.getPublic()));
+        assertSame(first, engine.cipher("RSA", Cipher.DECRYPT_MODE, keyPair.getPrivate()));
+        assertSame(engine.keyFactory("RSA"), engine.keyFactory("RSA"));
+
+        Cipher[] other = new Cipher[1];
+        Thread thread = new Thread(() -> {
+            try {
+                other[0] = engine.cipher("RSA", Cipher.ENCRYPT_MODE, keyPair.getPublic());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertNotSame(first, other[0]);
+
+        engine.evictCipher("RSA");
+        assertNotSame(first, engine.cipher("RSA", Cipher.ENCRYPT_MODE, keyPair.getPublic()));
+    }
+
+    @Test
+    public void reusedInstancesProduceCorrectResults() throws Exception {
+        KeyPair a = RsaUtil.getKeyPair();
+        KeyPair b = RsaUtil.getKeyPair();
+        byte[] data = "payload".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 3; i++) {
+            byte[] sign = engine.sign("SHA256withRSA", a.getPrivate(), data);
+            assertTrue(engine.verify("SHA256withRSA", a.getPublic(), data, sign));
+            assertFalse(engine.verify("SHA256withRSA", b.getPublic(), data, sign));
+
+            byte[] encrypted = engine.doFinal("RSA", Cipher.ENCRYPT_MODE, b.getPublic(), data, 0, data.length);
+            assertArrayEquals(data, engine.doFinal("RSA", Cipher.DECRYPT_MODE, b.getPrivate(), encrypted, 0, encrypted.length));
+        }
+    }
+
+    @Test
+    public void rsaUtilDelegatesToEngine() throws Exception {
+        KeyPair keyPair = RsaUtil.getKeyPair();
+        String publicKey = Base64Util.encodeToString(keyPair.getPublic().getEncoded());
+        PrivateKey privateKey = RsaUtil.getPrivateKey(Base64Util.encodeToString(keyPair.getPrivate().getEncoded()));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            sb.append("block-").append(i);
+        }
+        String data = sb.toString();
+        for (int i = 0; i < 2; i++) {
+            String encrypted = RsaUtil.encrypt(data, RsaUtil.getPublicKey(publicKey));
+            assertEquals(data, RsaUtil.decrypt(encrypted, privateKey));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RsaEnvelopeTest {
+
+    private static final KeyPair KEY_PAIR;
+
+    static {
+        try {
+            KEY_PAIR = RsaUtil.getKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void sealsAndOpensLargePayload() throws Exception {
+        byte[] data = new byte[100 * 1024];
+        new Random(1).nextBytes(data);
+        byte[] envelope = RsaEnvelope.seal(KEY_PAIR.getPublic(), data);
+        // 头 5 字节 + 1024位密钥包装后的 128 字节 + IV 12 字节 + 标签 16 字节
+        assertEquals(data.length + 5 + 128 + 12 + 16, envelope.length);
+        assertTrue(RsaEnvelope.isEnvelope(envelope));
+        assertArrayEquals(data, RsaEnvelope.open(KEY_PAIR.getPrivate(), envelope));
+        assertArrayEquals(new byte[0], RsaEnvelope.open(KEY_PAIR.getPrivate(), RsaEnvelope.seal(KEY_PAIR.getPublic(), new byte[0])));
+    }
+
+    @Test
+    public void detectsTampering() throws Exception {
+        byte[] envelope = RsaEnvelope.seal(KEY_PAIR.getPublic(), "hello".getBytes("UTF-8"));
+        envelope[envelope.length - 20] ^= 1;
+        try {
+            RsaEnvelope.open(KEY_PAIR.getPrivate(), envelope);
+            fail();
+        } catch (AEADBadTagException expected) {
+        }
+    }
+
+    @Test
+    public void rsaUtilDecryptsBothFormats() throws Exception {
+        String data = "201906251609230000";
+        assertEquals(data, RsaUtil.decrypt(RsaUtil.encryptEnvelope(data, KEY_PAIR.getPublic()), KEY_PAIR.getPrivate()));
+        assertEquals(data, RsaUtil.decrypt(RsaUtil.encrypt(data, KEY_PAIR.getPublic()), KEY_PAIR.getPrivate()));
+    }
+
+    @Test
+    public void legacyCiphertextWithEnvelopeMagicFallsBack() throws Exception {
+        // 两段旧格式密文，开头恰好是信封的魔数和版本：第一个里信封长度字段超出总长，第二个解不开数据密钥
+        byte[] truncated = new byte[256];
+        truncated[0] = 'R';
+        truncated[1] = 'E';
+        truncated[2] = 1;
+        truncated[3] = (byte) 0xFF;
+        truncated[4] = (byte) 0xFF;
+        byte[] wrongKeyLength = truncated.clone();
+        wrongKeyLength[3] = 0;
+        wrongKeyLength[4] = 64;
+
+        LegacyDecryptor legacy = new LegacyDecryptor();
+        try {
+            assertEquals("legacy", RsaUtil.decrypt(Base64Util.encodeToString(truncated), KEY_PAIR.getPrivate(), legacy));
+            assertEquals("legacy", RsaUtil.decrypt(Base64Util.encodeToString(wrongKeyLength), KEY_PAIR.getPrivate(), legacy));
+            assertEquals(2, legacy.calls);
+            assertEquals(128, legacy.blockSize);
+        } finally {
+            legacy.close();
+        }
+    }
+
+    /**
+     * 旧格式密文的头几个字节由RSA运算决定，没法构造出真正能解开的，这里只记录是否走到了旧格式的分段解密
+     */
+    private static final class LegacyDecryptor extends RsaBlockDecryptor {
+        private int calls;
+        private int blockSize;
+
+        private LegacyDecryptor() {
+            super(1, DEFAULT_PARALLEL_THRESHOLD);
+        }
+
+        @Override
+        public byte[] decrypt(PrivateKey privateKey, byte[] data, int blockSize) {
+            calls++;
+            this.blockSize = blockSize;
+            return "legacy".getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class RsaKeyCacheTest {
+
+    private final RsaKeyCache<PublicKey> cache = new RsaKeyCache<>(2,
+            encoded -> KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(encoded)));
+
+    @Test
+    public void evictsLeastRecentlyUsedKey() throws Exception {
+        String a = encode(RsaUtil.getKeyPair());
+        String b = encode(RsaUtil.getKeyPair());
+        String c = encode(RsaUtil.getKeyPair());
+
+        PublicKey keyA = cache.get(a);
+        assertSame(keyA, cache.get(a));
+        cache.get(b);
+        // a 最近被访问过，放入 c 时淘汰的是 b
+        cache.get(a);
+        cache.get(c);
+        assertSame(keyA, cache.get(a));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.get(b);
+        assertEquals(4, cache.getMissCount());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void rsaUtilCachesParsedKeys() throws Exception {
+        KeyPair keyPair = RsaUtil.getKeyPair();
+        String publicKey = encode(keyPair);
+        long hits = RsaUtil.getPublicKeyCache().getHitCount();
+        PublicKey parsed = RsaUtil.getPublicKey(publicKey);
+        assertEquals(keyPair.getPublic(), parsed);
+        assertNotSame(keyPair.getPublic(), parsed);
+        assertSame(parsed, RsaUtil.getPublicKey(publicKey));
+        assertEquals(hits + 1, RsaUtil.getPublicKeyCache().getHitCount());
+    }
+
+    private static String encode(KeyPair keyPair) {
+        return Base64Util.encodeToString(keyPair.getPublic().getEncoded());
+    }
+}
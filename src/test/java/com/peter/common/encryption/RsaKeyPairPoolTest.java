@@ -0,0 +1,68 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class RsaKeyPairPoolTest {
+
+    @Test
+    public void refillsToWatermarkInBackground() throws Exception {
+        try (RsaKeyPairPool pool = new RsaKeyPairPool(2, 1024, 512)) {
+            awaitDepth(pool, 1024, 2);
+            awaitDepth(pool, 512, 2);
+            KeyPair first = pool.take(1024);
+            KeyPair second = pool.take(1024);
+            assertNotSame(first, second);
+            assertEquals(1024, ((RSAPublicKey) first.getPublic()).getModulus().bitLength());
+            assertEquals(0, pool.getFallbackCount());
+            awaitDepth(pool, 1024, 2);
+
+            // 没有配置的长度同步生成
+            assertEquals(768, ((RSAPublicKey) pool.take(768).getPublic()).getModulus().bitLength());
+            assertEquals(1, pool.getFallbackCount());
+            assertEquals(3, pool.getTakeCount());
+            assertTrue(pool.getGeneratedCount() >= 6);
+        }
+    }
+
+    @Test
+    public void getKeyPairHonoursLength() throws Exception {
+        assertEquals(2048, ((RSAPublicKey) RsaUtil.getKeyPair(2048).getPublic()).getModulus().bitLength());
+    }
+
+    @Test
+    public void pooled2048BitPairRoundTrips() throws Exception {
+        try (RsaKeyPairPool pool = new RsaKeyPairPool(1, 2048)) {
+            KeyPair keyPair = pool.take(2048);
+            String shortText = "201906251609230000";
+            assertEquals(shortText, RsaUtil.decrypt(RsaUtil.encrypt(shortText, keyPair.getPublic()), keyPair.getPrivate()));
+            // 超过一段（245字节）时按256字节一段分段
+            StringBuilder longText = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                longText.append(i).append(',');
+            }
+            String encrypted = RsaUtil.encrypt(longText.toString(), keyPair.getPublic());
+            assertEquals(0, Base64Util.decode(encrypted).length % 256);
+            assertEquals(longText.toString(), RsaUtil.decrypt(encrypted, keyPair.getPrivate()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsupportedKeySize() {
+        new RsaKeyPairPool(1, 100);
+    }
+
+    private static void awaitDepth(RsaKeyPairPool pool, int keySize, int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (pool.getDepth(keySize) < depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(depth, pool.getDepth(keySize));
+    }
+}
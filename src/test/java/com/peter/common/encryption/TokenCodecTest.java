@@ -0,0 +1,64 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TokenCodecTest {
+
+    private final TokenCodec codec = new TokenCodec(64, 9, 2, 4096);
+
+    @Test
+    public void smallPayloadIsStoredRaw() {
+        String token = codec.encode("uid=42");
+        assertEquals(Base64Util.encodeToString(
+                "\0uid=42".getBytes(StandardCharsets.UTF_8), Base64Util.Alphabet.URL_SAFE_NO_PADDING), token);
+        assertEquals("uid=42", codec.decodeToString(token));
+    }
+
+    @Test
+    public void repetitivePayloadIsCompressedAndUrlSafe() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            sb.append("{\"userId\":").append(i).append(",\"role\":\"admin\"}");
+        }
+        String payload = sb.toString();
+        String token = codec.encode(payload);
+        assertTrue(token.length() < payload.length() / 2);
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(payload, codec.decodeToString(token));
+        assertEquals(1, codec.getIdleDeflaters());
+        assertEquals(1, codec.getIdleInflaters());
+    }
+
+    @Test
+    public void incompressiblePayloadFallsBackToRaw() {
+        byte[] data = new byte[1000];
+        new Random(3).nextBytes(data);
+        String token = codec.encode(data);
+        assertEquals(0, Base64Util.decode(token)[0]);
+        assertArrayEquals(data, codec.decode(token));
+    }
+
+    @Test
+    public void rejectsTokensExpandingBeyondLimit() {
+        String token = new TokenCodec(64, 9, 2, 1 << 20).encode(new byte[8192]);
+        try {
+            codec.decode(token);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertEquals(1, codec.getIdleInflaters());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownHeader() {
+        codec.decode(Base64Util.encodeToString(new byte[]{7, 1, 2}, Base64Util.Alphabet.URL_SAFE_NO_PADDING));
+    }
+}
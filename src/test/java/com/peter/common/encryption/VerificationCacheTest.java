@@ -0,0 +1,55 @@
+package com.peter.common.encryption;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VerificationCacheTest {
+
+    private static final String ALGORITHM = SignedMessage.DEFAULT_ALGORITHM;
+
+    @Test
+    public void cachesResultsUntilExpiry() throws Exception {
+        KeyPair keyPair = RsaUtil.getKeyPair();
+        byte[] payload = "payload".getBytes(StandardCharsets.UTF_8);
+        byte[] sign = new RsaCryptoEngine().sign(ALGORITHM, keyPair.getPrivate(), payload);
+        AtomicLong now = new AtomicLong();
+        VerificationCache cache = new VerificationCache(new RsaCryptoEngine(), 10, TimeUnit.SECONDS.toNanos(60), now::get);
+
+        assertTrue(cache.verify(ALGORITHM, keyPair.getPublic(), payload, sign));
+        assertTrue(cache.verify(ALGORITHM, keyPair.getPublic(), payload, sign));
+        byte[] tampered = "payloae".getBytes(StandardCharsets.UTF_8);
+        assertFalse(cache.verify(ALGORITHM, keyPair.getPublic(), tampered, sign));
+        assertFalse(cache.verify(ALGORITHM, keyPair.getPublic(), tampered, sign));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0.0);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertTrue(cache.verify(ALGORITHM, keyPair.getPublic(), payload, sign));
+        assertEquals(1, cache.getExpiredCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void evictsBeyondMaxSize() throws Exception {
+        KeyPair keyPair = RsaUtil.getKeyPair();
+        VerificationCache cache = new VerificationCache(2, 1, TimeUnit.MINUTES);
+        RsaCryptoEngine engine = new RsaCryptoEngine();
+        for (int i = 0; i < 5; i++) {
+            byte[] payload = {(byte) i};
+            byte[] sign = engine.sign(ALGORITHM, keyPair.getPrivate(), payload);
+            assertTrue(RsaUtil.checkSign((RSAPublicKey) keyPair.getPublic(), payload, sign, cache));
+        }
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getEvictionCount());
+    }
+}
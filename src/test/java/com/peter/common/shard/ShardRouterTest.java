@@ -0,0 +1,77 @@
+package com.peter.common.shard;
+
+import com.peter.common.algorithm.SnowflakeCreateId;
+import com.peter.common.algorithm.SnowflakeLayout;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ShardRouterTest {
+
+    private static List<ShardTarget> targets(int n) {
+        List<ShardTarget> targets = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            targets.add(new ShardTarget("db_" + i, "t_order_" + i));
+        }
+        return targets;
+    }
+
+    @Test
+    public void idBitsRouterFollowsGeneratorNode() {
+        List<ShardTarget> targets = targets(4);
+        IdBitsShardRouter router = new IdBitsShardRouter(SnowflakeLayout.DEFAULT, targets);
+        SnowflakeCreateId generator = new SnowflakeCreateId(6, 1, 0);
+
+        // (1 << 5 | 6) % 4 == 2
+        for (int i = 0; i < 100; i++) {
+            assertSame(targets.get(2), router.route(generator.nextId()));
+        }
+    }
+
+    @Test
+    public void consistentHashSpreadsEvenlyAndMovesLittle() {
+        ConsistentHashShardRouter router = new ConsistentHashShardRouter(targets(4));
+        ConsistentHashShardRouter grown = router.withShard(new ShardTarget("db_4", "t_order_4"));
+
+        SnowflakeCreateId generator = new SnowflakeCreateId(1, 1, 0);
+        long[] ids = generator.nextIds(200000);
+        Map<ShardTarget, Integer> counts = new HashMap<>();
+        int moved = 0;
+        for (long id : ids) {
+            ShardTarget before = router.route(id);
+            ShardTarget after = grown.route(id);
+            counts.merge(before, 1, Integer::sum);
+            if (!before.equals(after)) {
+                moved++;
+                assertEquals("db_4", after.getDatabase());
+            }
+        }
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            assertTrue("uneven distribution " + counts, count > ids.length / 4 * 0.7 && count < ids.length / 4 * 1.3);
+        }
+        double ratio = moved / (double) ids.length;
+        assertTrue("moved " + ratio, ratio > 0.1 && ratio < 0.3);
+    }
+
+    @Test
+    public void routingIsStableAcrossInstances() {
+        ConsistentHashShardRouter a = new ConsistentHashShardRouter(targets(8));
+        ConsistentHashShardRouter b = new ConsistentHashShardRouter(targets(8));
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            long id = random.nextLong() >>> 1;
+            assertEquals(a.route(id), b.route(id));
+        }
+        assertEquals(Arrays.asList(targets(8).toArray()), a.getTargets());
+    }
+}